@@ -2,6 +2,7 @@ package guru.nicks.commons.jpa;
 
 import guru.nicks.commons.exception.user.EmailAlreadyExistsException;
 import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
 import guru.nicks.commons.utils.TransformUtils;
 
 import jakarta.annotation.PostConstruct;
@@ -17,10 +18,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.hibernate.FlushMode;
 import org.hibernate.Session;
 import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.bytecode.spi.BytecodeEnhancementMetadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
@@ -42,6 +48,20 @@ public class JpaInference {
      */
     public static final EnhancedSqlDialect DEFAULT_SQL_DIALECT = EnhancedSqlDialect.POSTGRES;
 
+    /**
+     * @see #isIdArrayLookupEnabled()
+     */
+    public static final String ID_ARRAY_LOOKUP_PROPERTY_NAME = "app.database.id-array-lookup";
+
+    /**
+     * If {@code true}, the application fails to start if some {@link FullTextSearchAwareEntity} subclasses load their
+     * search data eagerly. Otherwise (by default), a warning is logged.
+     *
+     * @see #findEntityClassesWithEagerFullTextSearchData()
+     */
+    public static final String REQUIRE_LAZY_FULL_TEXT_SEARCH_DATA_PROPERTY_NAME =
+            "app.full-text-search.require-lazy-data";
+
     /**
      * Simple camelCase to snake_case conversion (matches Hibernate 6 default behavior).
      * <p>
@@ -56,10 +76,81 @@ public class JpaInference {
     @Getter
     private EnhancedSqlDialect sqlDialect;
 
+    /**
+     * If {@code true} (and {@link EnhancedSqlDialect#getIdArrayLookupTemplate()} is supported), entities are looked up
+     * by multiple IDs bound as a single array parameter instead of an {@code IN (...)} list. Off by default.
+     */
+    @Getter
+    private boolean idArrayLookupEnabled;
+
     @PostConstruct
     private void init() {
         sqlDialect = environment.getProperty(SQL_DIALECT_PROPERTY_NAME, EnhancedSqlDialect.class, DEFAULT_SQL_DIALECT);
         log.info("Using SQL dialect {}", sqlDialect);
+
+        idArrayLookupEnabled = environment.getProperty(ID_ARRAY_LOOKUP_PROPERTY_NAME, Boolean.class, false)
+                && (sqlDialect.getIdArrayLookupTemplate() != null);
+        log.info("ID array lookup enabled: {}", idArrayLookupEnabled);
+
+        checkFullTextSearchDataLaziness();
+    }
+
+    /**
+     * Finds {@link FullTextSearchAwareEntity} subclasses whose
+     * {@value FullTextSearchAwareEntity#FULL_TEXT_SEARCH_DATA_PROPERTY} is loaded together with the entity, which means
+     * transferring and keeping in memory up to {@link EnhancedSqlDialect#getMaxFullTextSearchDataLength()} bytes per
+     * entity. This happens if the property is not mapped as lazy or the entity class is not bytecode-enhanced for lazy
+     * loading.
+     *
+     * @return entity classes, sorted by name
+     * @see FullTextSearchAwareEntity#FULL_TEXT_SEARCH_LAZY_GROUP
+     */
+    public List<Class<?>> findEntityClassesWithEagerFullTextSearchData() {
+        List<Class<?>> entityClasses = new ArrayList<>();
+
+        entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .forEachEntityDescriptor(persister -> {
+                    if (!FullTextSearchAwareEntity.class.isAssignableFrom(persister.getMappedClass())) {
+                        return;
+                    }
+
+                    BytecodeEnhancementMetadata metadata = persister.getBytecodeEnhancementMetadata();
+                    boolean lazy = metadata.isEnhancedForLazyLoading() && metadata.getLazyAttributesMetadata()
+                            .isLazyAttribute(FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY);
+
+                    if (!lazy) {
+                        entityClasses.add(persister.getMappedClass());
+                    }
+                });
+
+        entityClasses.sort(Comparator.comparing(Class::getName));
+        return entityClasses;
+    }
+
+    /**
+     * Warns about (or, if {@value #REQUIRE_LAZY_FULL_TEXT_SEARCH_DATA_PROPERTY_NAME} is {@code true}, fails on) entity
+     * classes returned by {@link #findEntityClassesWithEagerFullTextSearchData()}.
+     *
+     * @throws IllegalStateException lazy search data is required, but some entities load it eagerly
+     */
+    private void checkFullTextSearchDataLaziness() {
+        List<Class<?>> entityClasses = findEntityClassesWithEagerFullTextSearchData();
+
+        if (entityClasses.isEmpty()) {
+            return;
+        }
+
+        String message = "Entities load '" + FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY
+                + "' eagerly (not mapped as lazy or not bytecode-enhanced for lazy loading): "
+                + entityClasses.stream().map(Class::getName).toList();
+
+        if (environment.getProperty(REQUIRE_LAZY_FULL_TEXT_SEARCH_DATA_PROPERTY_NAME, Boolean.class, false)) {
+            throw new IllegalStateException(message);
+        }
+
+        log.warn(message);
     }
 
     /**
@@ -2,7 +2,9 @@ package guru.nicks.commons.jpa.config;
 
 import guru.nicks.commons.jpa.GeometryFactoryQualifier;
 import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
 import guru.nicks.commons.jpa.domain.GeometryFactoryType;
+import guru.nicks.commons.jpa.domain.JpaConstants;
 import guru.nicks.commons.jpa.domain.MyJpaProperties;
 import guru.nicks.commons.jpa.mapper.AuditDetailsMapper;
 import guru.nicks.commons.jpa.mapper.DataIntegrityViolationExceptionConverter;
@@ -11,8 +13,11 @@ import guru.nicks.commons.jpa.mapper.ObjectOptimisticLockingFailureExceptionConv
 import guru.nicks.commons.jpa.mapper.OptimisticLockExceptionConverter;
 import guru.nicks.commons.jpa.repository.EnhancedJpaRepository;
 import guru.nicks.commons.jpa.repository.EnhancedJpaSearchRepository;
+import guru.nicks.commons.jpa.service.FullTextSearchRebuildService;
+import guru.nicks.commons.jpa.service.FullTextSearchReindexService;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.OptimisticLockException;
 import lombok.extern.slf4j.Slf4j;
 import org.geolatte.geom.codec.Wkb;
@@ -25,8 +30,10 @@ import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
@@ -35,6 +42,10 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * /** Transaction managers and transaction templates aren't created automatically. This is intentional: some projects
  * may combine JPA transactions with Mongo ones (which requires one of the beans to be primary), some may not.
@@ -156,4 +167,61 @@ public class CommonsJpaAutoConfiguration {
         return new JpaInference(entityManager, environment);
     }
 
+    /**
+     * Runs {@link FullTextSearchRebuildService} tasks in virtual threads. To use another executor, declare a bean named
+     * {@value FullTextSearchRebuildService#EXECUTOR_BEAN_NAME}.
+     *
+     * @return bean
+     */
+    @ConditionalOnProperty(name = FullTextSearchRebuildService.ENABLED_PROPERTY_NAME, havingValue = "true")
+    @ConditionalOnMissingBean(name = FullTextSearchRebuildService.EXECUTOR_BEAN_NAME)
+    @Bean(name = FullTextSearchRebuildService.EXECUTOR_BEAN_NAME)
+    public ExecutorService fullTextSearchRebuildExecutor() {
+        log.debug("Building {} bean", FullTextSearchRebuildService.EXECUTOR_BEAN_NAME);
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Rebuilds full-text search ngrams in background for entities which opted in for it. Created only if
+     * {@value FullTextSearchRebuildService#ENABLED_PROPERTY_NAME} is {@code true}, so that no Hibernate event listeners
+     * are registered for applications which don't need them.
+     *
+     * @param entityManagerFactory entity manager factory
+     * @param jpaInference         JPA inference
+     * @param executor             runs rebuild tasks
+     * @param environment          for reading {@value FullTextSearchRebuildService#BATCH_SIZE_PROPERTY_NAME}
+     * @return bean
+     * @see FullTextSearchAwareEntity#isFullTextSearchRebuildDeferred()
+     */
+    @ConditionalOnProperty(name = FullTextSearchRebuildService.ENABLED_PROPERTY_NAME, havingValue = "true")
+    @ConditionalOnMissingBean
+    @Bean
+    public FullTextSearchRebuildService fullTextSearchRebuildService(EntityManagerFactory entityManagerFactory,
+            JpaInference jpaInference, @Qualifier(FullTextSearchRebuildService.EXECUTOR_BEAN_NAME) Executor executor,
+            Environment environment) {
+        log.debug("Building {} bean", FullTextSearchRebuildService.class.getSimpleName());
+        return new FullTextSearchRebuildService(entityManagerFactory, jpaInference, executor,
+                environment.getProperty(FullTextSearchRebuildService.BATCH_SIZE_PROPERTY_NAME, Integer.class,
+                        JpaConstants.INTERNAL_PAGE_SIZE));
+    }
+
+    /**
+     * Rebuilds search data of all entities of a class on demand. Unlike {@link FullTextSearchRebuildService}, always
+     * created: it registers no Hibernate event listeners and runs nothing in background.
+     *
+     * @param entityManagerFactory entity manager factory
+     * @param jpaInference         JPA inference
+     * @param environment          for reading {@value FullTextSearchReindexService#BATCH_SIZE_PROPERTY_NAME}
+     * @return bean
+     */
+    @ConditionalOnMissingBean
+    @Bean
+    public FullTextSearchReindexService fullTextSearchReindexService(EntityManagerFactory entityManagerFactory,
+            JpaInference jpaInference, Environment environment) {
+        log.debug("Building {} bean", FullTextSearchReindexService.class.getSimpleName());
+        return new FullTextSearchReindexService(entityManagerFactory, jpaInference,
+                environment.getProperty(FullTextSearchReindexService.BATCH_SIZE_PROPERTY_NAME, Integer.class,
+                        JpaConstants.INTERNAL_PAGE_SIZE));
+    }
+
 }
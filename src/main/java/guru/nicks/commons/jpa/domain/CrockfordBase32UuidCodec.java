@@ -0,0 +1,144 @@
+package guru.nicks.commons.jpa.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Converts UUIDs to/from Crockford Base32 (26 characters), treating the UUID as a 128-bit unsigned number (as ULID
+ * does), so the first character encodes the 3 most significant bits. Works directly on the two {@code long} halves of
+ * the UUID: no {@link java.math.BigInteger}s, intermediate UUID byte arrays, or substrings are created - only the
+ * resulting UUID, or the resulting string and the single buffer it's built in.
+ */
+final class CrockfordBase32UuidCodec {
+
+    /**
+     * Encoded UUID length: 128 bits / 5 bits per character, rounded up.
+     */
+    static final int ENCODED_LENGTH = 26;
+
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Character (ASCII only) to its 5-bit value, -1 for invalid characters. Only characters produced by
+     * {@link #encode(UUID)} are accepted, so each UUID has exactly one valid encoding.
+     */
+    private static final byte[] CANONICAL_DECODING_TABLE = new byte[128];
+
+    /**
+     * Same as {@link #CANONICAL_DECODING_TABLE}, but lowercase letters, as well as {@code I}, {@code L}, and {@code O}
+     * (which are not in the alphabet because they look like digits), are accepted too, as per the Crockford spec.
+     */
+    private static final byte[] LENIENT_DECODING_TABLE = new byte[128];
+
+    private static final int BITS_PER_CHAR = 5;
+    private static final int CHAR_MASK = 0x1F;
+
+    /**
+     * The first character may only have 3 bits set (26 * 5 = 130 bits, i.e. 2 bits too many).
+     */
+    private static final int MAX_FIRST_CHAR_VALUE = 0x07;
+
+    static {
+        Arrays.fill(CANONICAL_DECODING_TABLE, (byte) -1);
+
+        for (int i = 0; i < ALPHABET.length; i++) {
+            CANONICAL_DECODING_TABLE[ALPHABET[i]] = (byte) i;
+        }
+
+        System.arraycopy(CANONICAL_DECODING_TABLE, 0, LENIENT_DECODING_TABLE, 0, LENIENT_DECODING_TABLE.length);
+
+        for (int i = 0; i < ALPHABET.length; i++) {
+            LENIENT_DECODING_TABLE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+
+        LENIENT_DECODING_TABLE['I'] = LENIENT_DECODING_TABLE['i'] = LENIENT_DECODING_TABLE['1'];
+        LENIENT_DECODING_TABLE['L'] = LENIENT_DECODING_TABLE['l'] = LENIENT_DECODING_TABLE['1'];
+        LENIENT_DECODING_TABLE['O'] = LENIENT_DECODING_TABLE['o'] = LENIENT_DECODING_TABLE['0'];
+    }
+
+    private CrockfordBase32UuidCodec() {
+    }
+
+    /**
+     * Encodes UUID.
+     *
+     * @param uuid UUID to encode
+     * @return 26 characters (digits and uppercase letters)
+     */
+    static String encode(UUID uuid) {
+        long high = uuid.getMostSignificantBits();
+        long low = uuid.getLeastSignificantBits();
+        byte[] encoded = new byte[ENCODED_LENGTH];
+
+        // from the least significant characters, shifting the 128-bit number right
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            encoded[i] = ALPHABET[(int) (low & CHAR_MASK)];
+            low = (low >>> BITS_PER_CHAR) | (high << (Long.SIZE - BITS_PER_CHAR));
+            high >>>= BITS_PER_CHAR;
+        }
+
+        // with Latin-1 (compact strings), the bytes are copied to the string as is, without decoding
+        return new String(encoded, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decodes UUID encoded canonically, i.e. as by {@link #encode(UUID)}.
+     *
+     * @param encoded 26 Crockford Base32 characters (digits and uppercase letters)
+     * @return UUID
+     * @throws IllegalArgumentException invalid length or characters (including lowercase letters and
+     *                                  {@code I}/{@code L}/{@code O}, see {@link #canonicalize(CharSequence)})
+     */
+    static UUID decode(CharSequence encoded) {
+        return decode(encoded, CANONICAL_DECODING_TABLE);
+    }
+
+    /**
+     * Converts a Crockford Base32-encoded UUID to its canonical form, i.e. the one returned by {@link #encode(UUID)}.
+     *
+     * @param encoded 26 Crockford Base32 characters, case-insensitive, {@code I}/{@code L} and {@code O} are treated as
+     *                {@code 1} and {@code 0} respectively
+     * @return canonical form
+     * @throws IllegalArgumentException invalid length or characters
+     */
+    static String canonicalize(CharSequence encoded) {
+        return encode(decode(encoded, LENIENT_DECODING_TABLE));
+    }
+
+    private static UUID decode(CharSequence encoded, byte[] decodingTable) {
+        if (encoded.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Crockford Base32 UUID must be " + ENCODED_LENGTH + " characters long");
+        }
+
+        long high = 0;
+        long low = 0;
+
+        // from the most significant characters, shifting the 128-bit number left
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            int value = decodeChar(encoded.charAt(i), decodingTable);
+
+            if ((i == 0) && (value > MAX_FIRST_CHAR_VALUE)) {
+                throw new IllegalArgumentException("Crockford Base32 UUID exceeds 128 bits");
+            }
+
+            high = (high << BITS_PER_CHAR) | (low >>> (Long.SIZE - BITS_PER_CHAR));
+            low = (low << BITS_PER_CHAR) | value;
+        }
+
+        return new UUID(high, low);
+    }
+
+    private static int decodeChar(char c, byte[] decodingTable) {
+        int value = (c < decodingTable.length)
+                ? decodingTable[c]
+                : -1;
+
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid Crockford Base32 character: '" + c + "'");
+        }
+
+        return value;
+    }
+
+}
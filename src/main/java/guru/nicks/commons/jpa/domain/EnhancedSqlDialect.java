@@ -1,12 +1,17 @@
 package guru.nicks.commons.jpa.domain;
 
+import guru.nicks.commons.jpa.impl.EnhancedSqlFunctionContributor;
+
 import com.querydsl.core.types.dsl.BooleanTemplate;
-import com.querydsl.core.types.dsl.StringTemplate;
+import com.querydsl.core.types.dsl.NumberTemplate;
+import jakarta.annotation.Nullable;
 import org.springframework.util.unit.DataSize;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Abstraction of DB-specific queries.
@@ -16,17 +21,17 @@ public enum EnhancedSqlDialect {
     POSTGRES {
         @Override
         public String getJsonContainsTemplate() {
-            return "CAST(JSON_CONTAINS(%s , '%s') AS int) = 1";
+            return "json_contains(%s, {0}) = 1";
         }
 
         @Override
         public String getFullTextSearchTemplate() {
-            return "CAST(FULL_TEXT_SEARCH(%s , '%s') AS int) = 1";
+            return "full_text_search(%s, {0}) = 1";
         }
 
         @Override
         public String getFullTextSearchRankTemplate() {
-            return "CAST(FULL_TEXT_SEARCH_RANK(%s , '%s') AS double)";
+            return "full_text_search_rank(%s, {0})";
         }
 
         /**
@@ -38,6 +43,40 @@ public enum EnhancedSqlDialect {
             return String.join(" OR ", words);
         }
 
+        @Override
+        public String getPrefixFullTextSearchTemplate() {
+            return "full_text_search_prefix(%s, {0})";
+        }
+
+        @Override
+        public String getPrefixFullTextSearchRankTemplate() {
+            return "full_text_search_prefix_rank(%s, {0})";
+        }
+
+        @Override
+        public String getTrigramFullTextSearchTemplate() {
+            return "full_text_search_trigram(%s, {0})";
+        }
+
+        @Override
+        public String getTrigramFullTextSearchRankTemplate() {
+            return "full_text_search_trigram_rank(%s, {0})";
+        }
+
+        /**
+         * Creates a {@code to_tsquery} argument: {@code word1:* | word2:*}. All characters except for letters and
+         * digits are removed from the words because they may be {@code tsquery} operators.
+         */
+        @Override
+        public String createPrefixFullTextSearchQuery(Collection<String> words) {
+            return words.stream()
+                    .map(word -> NON_ALPHANUMERIC.matcher(word).replaceAll(""))
+                    .filter(word -> !word.isEmpty())
+                    .distinct()
+                    .map(word -> word + ":*")
+                    .collect(Collectors.joining(" | "));
+        }
+
         /**
          * As per the <a href="https://www.postgresql.org/docs/14/textsearch-limitations.html">Postgres manual</a>
          * (see {@code tsvector}).
@@ -52,6 +91,39 @@ public enum EnhancedSqlDialect {
             return "SELECT nextval('%s')";
         }
 
+        @Override
+        public String getNextSequenceValuesTemplate() {
+            return "SELECT nextval('%s') FROM generate_series(1, ?)";
+        }
+
+        @Override
+        public String getSequenceIncrementQuery() {
+            return "SELECT CAST(increment AS bigint) FROM information_schema.sequences"
+                    + " WHERE sequence_name = ? AND sequence_schema = COALESCE(?, current_schema())";
+        }
+
+        @Override
+        public String getIdArrayLookupTemplate() {
+            // rendered as '= any(?)', which is index-seekable like '= ?'
+            return "%s = FUNCTION('any', %s)";
+        }
+
+        /**
+         * For {@link FullTextSearchStrategy#TRIGRAM}, search data is plain text, otherwise it's {@code tsvector}.
+         */
+        @Override
+        public String getFullTextSearchDataUpdateTemplate(FullTextSearchStrategy strategy) {
+            String value = (strategy == FullTextSearchStrategy.TRIGRAM)
+                    ? "?"
+                    : "CAST(? AS tsvector)";
+            return "UPDATE %1$s SET %2$s = " + value + ", %3$s = ? WHERE %4$s = ? AND %3$s IS NOT DISTINCT FROM ?";
+        }
+
+        @Override
+        public String getRowCountEstimateTemplate() {
+            return "EXPLAIN (FORMAT JSON) %s";
+        }
+
         @Override
         public String getTimestampToDateTemplate() {
             return "DATE(%s AT TIME ZONE '%s')";
@@ -83,37 +155,112 @@ public enum EnhancedSqlDialect {
         }
     };
 
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]");
+
     /**
-     * Template arguments: column name (of type {@code jsonb} in Postgres); value (JSON-escaped). Please sanitize them
-     * to avoid SQL injection!
+     * Template arguments: column name (of type {@code jsonb} in Postgres) - please sanitize it to avoid SQL injection!
+     * The value (JSON) is not embedded: it's QueryDSL template argument {@code {0}}, bound as a query parameter, so the
+     * HQL is the same for all values. QueryDSL numbers it consistently with the other parameters of the query. The
+     * parameter is bound as {@code varchar}, therefore in Postgres the HQL function casts it to {@code jsonb}
+     * ({@code CAST(?2 AS jsonb)}) - there's no implicit cast.
      *
-     * @return template for searching inside a JSON column (in the form {@code condition = 1}, to be wrapped in a
+     * @return HQL template for searching inside a JSON column (in the form {@code condition = 1}), to be wrapped in a
      *         {@link BooleanTemplate}
+     * @see EnhancedSqlFunctionContributor
      */
     public abstract String getJsonContainsTemplate();
 
     /**
-     * Template arguments: column name (of type {@code tsvector} in Postgres); value (SQL-escaped text). Please sanitize
-     * them to avoid SQL injection!
+     * Template arguments: column name (of type {@code tsvector} in Postgres) - please sanitize it to avoid SQL
+     * injection! The value (full-text search query) is not embedded: it's QueryDSL template argument {@code {0}}, bound
+     * as a query parameter, so the HQL is the same for all values.
      *
-     * @return template for searching inside a full-text search column (in the form {@code condition = 1}, to be wrapped
-     *         in a {@link BooleanTemplate}
+     * @return HQL template for searching inside a full-text search column (in the form {@code condition = 1}), to be
+     *         wrapped in a {@link BooleanTemplate}
+     * @see EnhancedSqlFunctionContributor
      */
     public abstract String getFullTextSearchTemplate();
 
     /**
-     * Template arguments: column name (of type {@code tsvector} in Postgres); value (SQL-escaped text). Please sanitize
-     * them to avoid SQL injection!
+     * Template arguments: column name (of type {@code tsvector} in Postgres) - please sanitize it to avoid SQL
+     * injection! The value (full-text search query) is not embedded: it's QueryDSL template argument {@code {0}}, bound
+     * as a query parameter, so the HQL is the same for all values.
      *
-     * @return template returning full-text search rank (as a {@code double}, suitable for sorting by it), to be wrapped
-     *         in {@link StringTemplate}
+     * @return HQL template returning full-text search rank (as a {@code double}, suitable for sorting by it), to be
+     *         wrapped in a {@link NumberTemplate}
+     * @see EnhancedSqlFunctionContributor
      */
     public abstract String getFullTextSearchRankTemplate();
 
+    /**
+     * Template arguments: column name (of type {@code tsvector} in Postgres) - please sanitize it to avoid SQL
+     * injection! The value (see {@link #createPrefixFullTextSearchQuery(Collection)}) is not embedded: it's QueryDSL
+     * template argument {@code {0}}, bound as a query parameter, so the HQL is the same for all values.
+     * <p>
+     * Unlike {@link #getFullTextSearchTemplate()}, the condition is native to the DB (not wrapped in user-defined
+     * functions), so that the DB can select candidates using its full-text index only.
+     *
+     * @return HQL template for {@link FullTextSearchStrategy#NATIVE_PREFIX} search (a boolean condition), to be wrapped
+     *         in a {@link BooleanTemplate}, or {@code null} if the dialect doesn't support it
+     * @see EnhancedSqlFunctionContributor
+     */
+    @Nullable
+    public abstract String getPrefixFullTextSearchTemplate();
+
+    /**
+     * Template arguments: column name (of type {@code tsvector} in Postgres) - please sanitize it to avoid SQL
+     * injection! The value (see {@link #createPrefixFullTextSearchQuery(Collection)}) is not embedded: it's QueryDSL
+     * template argument {@code {0}}, bound as a query parameter, so the HQL is the same for all values.
+     *
+     * @return HQL template returning {@link FullTextSearchStrategy#NATIVE_PREFIX} search rank (as a {@code double},
+     *         suitable for sorting by it), to be wrapped in a {@link NumberTemplate}, or {@code null} if the dialect
+     *         doesn't support it
+     * @see EnhancedSqlFunctionContributor
+     */
+    @Nullable
+    public abstract String getPrefixFullTextSearchRankTemplate();
+
+    /**
+     * Creates such a native full-text search query that succeeds if at least one of the input words is a prefix of a
+     * word in search data.
+     *
+     * @param words words to search for
+     * @return search query
+     * @throws UnsupportedOperationException the dialect doesn't support {@link FullTextSearchStrategy#NATIVE_PREFIX}
+     */
+    public abstract String createPrefixFullTextSearchQuery(Collection<String> words);
+
+    /**
+     * Template arguments: column name (of type {@code text} in Postgres) - please sanitize it to avoid SQL injection!
+     * The value (search words joined with spaces) is not embedded: it's QueryDSL template argument {@code {0}}, bound
+     * as a query parameter, so the HQL is the same for all values.
+     * <p>
+     * The condition is native to the DB, so that the DB can select candidates using its trigram index only.
+     *
+     * @return HQL template for {@link FullTextSearchStrategy#TRIGRAM} search (a boolean condition), to be wrapped in a
+     *         {@link BooleanTemplate}, or {@code null} if the dialect doesn't support it
+     * @see EnhancedSqlFunctionContributor
+     */
+    @Nullable
+    public abstract String getTrigramFullTextSearchTemplate();
+
+    /**
+     * Template arguments: column name (of type {@code text} in Postgres) - please sanitize it to avoid SQL injection!
+     * The value (search words joined with spaces) is not embedded: it's QueryDSL template argument {@code {0}}, bound
+     * as a query parameter, so the HQL is the same for all values.
+     *
+     * @return HQL template returning {@link FullTextSearchStrategy#TRIGRAM} similarity (as a {@code double} between 0
+     *         and 1, suitable for sorting by it), to be wrapped in a {@link NumberTemplate}, or {@code null} if the
+     *         dialect doesn't support it
+     * @see EnhancedSqlFunctionContributor
+     */
+    @Nullable
+    public abstract String getTrigramFullTextSearchRankTemplate();
+
     /**
      * Create such a full-text search condition that succeeds if at least one of the input words matches.
      *
-     * @param words words or ngrams to search for (please sanitize them to avoid SQL injection!)
+     * @param words words or ngrams to search for
      * @return search query
      */
     public abstract String createLenientFullTextSearchCondition(Collection<String> words);
@@ -130,6 +277,59 @@ public enum EnhancedSqlDialect {
      */
     public abstract String getNextSequenceValueTemplate();
 
+    /**
+     * Template arguments: sequence name (please sanitize to avoid SQL injection!). The only statement parameter is the
+     * number of values to fetch, so the SQL statement is the same regardless of it.
+     *
+     * @return native SQL template for getting several next values of a sequence in a single round trip (one value per
+     *         row), or {@code null} if the dialect doesn't support this
+     */
+    @Nullable
+    public abstract String getNextSequenceValuesTemplate();
+
+    /**
+     * Statement parameters: sequence name, sequence schema ({@code null} means the current one). Both are bound as
+     * parameters, so the SQL statement is the same for all sequences.
+     *
+     * @return native SQL statement for getting the increment of a sequence (a single row with a single numeric column,
+     *         no rows if there's no such sequence), or {@code null} if the dialect doesn't support this
+     */
+    @Nullable
+    public abstract String getSequenceIncrementQuery();
+
+    /**
+     * Template arguments: ID path (such as {@code e.id}), array parameter (such as {@code :ids}). The only parameter is
+     * an array of IDs, so the SQL statement (and therefore its query plan) is the same regardless of the number of IDs.
+     * It's HQL, not native SQL, so that Hibernate applies entity restrictions, filters, and inheritance.
+     *
+     * @return HQL predicate template for finding entities by an array of IDs, or {@code null} if the dialect doesn't
+     *         support array parameters
+     */
+    @Nullable
+    public abstract String getIdArrayLookupTemplate();
+
+    /**
+     * Template arguments: table name, full-text search data column name, full-text search data checksum column name, ID
+     * column name (please sanitize them to avoid SQL injection!). Statement parameters: full-text search data, its
+     * checksum, ID, expected (current) checksum - the row is not updated if the checksum has been changed concurrently.
+     *
+     * @param strategy full-text search strategy of the entity class (the search data column type may depend on it)
+     * @return native SQL template for updating full-text search data and its checksum only
+     */
+    public abstract String getFullTextSearchDataUpdateTemplate(FullTextSearchStrategy strategy);
+
+    /**
+     * Template arguments: {@code SELECT} statement rendered by Hibernate (its parameters are bound as usual). The
+     * resulting statement must return a single JSON value in the format of Postgres' {@code EXPLAIN (FORMAT JSON)},
+     * i.e. {@code [{"Plan": {"Plan Rows": ...}}]}, where the top plan node estimates the rows returned by the
+     * {@code SELECT}.
+     *
+     * @return native SQL template for getting the row count estimated by the query planner (without running the
+     *         query), or {@code null} if the dialect doesn't support it
+     */
+    @Nullable
+    public abstract String getRowCountEstimateTemplate();
+
     /**
      * Template arguments: column name, time zone (e.g. '+05:30' or 'Europe/Paris') - please sanitize them to avoid SQL
      * injection!
@@ -23,14 +23,17 @@ import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.SequencedSet;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -46,9 +49,39 @@ import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
  * For the above example, an abstract subclass should be created with the following property:
  * <pre>
  *  &#64;ToString.Exclude
+ *  &#64;EqualsAndHashCode.Exclude
+ *  &#64;Basic(fetch = FetchType.LAZY)
+ *  &#64;LazyGroup(FullTextSearchAwareEntity.FULL_TEXT_SEARCH_LAZY_GROUP)
  *  &#64;Type(PostgreSQLTSVectorType.class)
  *  private String fullTextSearchData;
  * </pre>
+ * The search data is written by {@link #rebuildFullTextSearchNgrams()} and read by the DB only, therefore it should not
+ * be loaded with the entity. For Hibernate to honor {@code FetchType.LAZY} on a basic property, entity classes must be
+ * bytecode-enhanced at build time:
+ * <pre>
+ *  &lt;plugin&gt;
+ *      &lt;groupId&gt;org.hibernate.orm.tooling&lt;/groupId&gt;
+ *      &lt;artifactId&gt;hibernate-enhance-maven-plugin&lt;/artifactId&gt;
+ *      &lt;version&gt;${hibernate.version}&lt;/version&gt;
+ *      &lt;executions&gt;
+ *          &lt;execution&gt;
+ *              &lt;goals&gt;
+ *                  &lt;goal&gt;enhance&lt;/goal&gt;
+ *              &lt;/goals&gt;
+ *              &lt;configuration&gt;
+ *                  &lt;enableLazyInitialization&gt;true&lt;/enableLazyInitialization&gt;
+ *                  &lt;enableDirtyTracking&gt;false&lt;/enableDirtyTracking&gt;
+ *              &lt;/configuration&gt;
+ *          &lt;/execution&gt;
+ *      &lt;/executions&gt;
+ *  &lt;/plugin&gt;
+ * </pre>
+ * Dirty tracking must be off because this class and its superclasses come from a library jar and are not enhanced,
+ * so enhanced dirty tracking would miss changes in their fields. Without enhancement, the property is loaded eagerly,
+ * and a warning is logged at startup (or the startup fails, see
+ * {@link guru.nicks.commons.jpa.JpaInference#REQUIRE_LAZY_FULL_TEXT_SEARCH_DATA_PROPERTY_NAME}).
+ * Excluding the property from {@code toString}/{@code equals}/{@code hashCode} prevents it from being loaded
+ * implicitly.
  * <p>
  * This implementation uses n-grams for better partial word matching and handles automatic generation of search data
  * during entity persistence operations:
@@ -58,6 +91,8 @@ import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
  *   <li>search data is automatically updated on entity insert/update</li>
  *   <li>maximum length of search data is limited by {@link EnhancedSqlDialect#getMaxFullTextSearchDataLength()}</li>
  * </ul>
+ * Alternatively, search data can consist of words only, matched by native DB prefix or trigram search - see
+ * {@link #getFullTextSearchStrategy()}.
  *
  * @param <ID> entity ID type
  * @see #getFullTextSearchDataSuppliers()
@@ -87,7 +122,26 @@ public abstract class FullTextSearchAwareEntity<ID> extends AuditableEntity<ID>
     public static final String FULL_TEXT_SEARCH_DATA_PROPERTY = "fullTextSearchData";
 
     /**
-     * Initial {@link StringBuilder} capacity for accumulating n-grams.
+     * Lazy group for {@value #FULL_TEXT_SEARCH_DATA_PROPERTY}, so that it's not loaded together with other lazy
+     * properties (if any) when one of them is accessed.
+     */
+    public static final String FULL_TEXT_SEARCH_LAZY_GROUP = "fullTextSearch";
+
+    /**
+     * Prepended to {@link #getFullTextSearchDataChecksum()} if ngram rebuild has been deferred.
+     *
+     * @see #isFullTextSearchRebuildDeferred()
+     */
+    public static final String STALE_CHECKSUM_PREFIX = "stale:";
+
+    /**
+     * Prepended to checksums computed by {@link Murmur3Hasher128}, to tell them from legacy ones computed by
+     * {@link ChecksumUtils#computeJsonChecksum}.
+     */
+    private static final String CHECKSUM_PREFIX = "m3:";
+
+    /**
+     * Initial {@link StringBuilder} capacity for accumulating search text.
      */
     private static final int ESTIMATED_FTS_BUILDER_CAPACITY = 1024;
 
@@ -163,14 +217,94 @@ public abstract class FullTextSearchAwareEntity<ID> extends AuditableEntity<ID>
         chunks.addAll(NgramUtils.createNgrams(text, NgramUtils.Mode.ALL, config));
 
         // this should never happen after the TextUtils call, but just in case
-        if (chunks.stream().anyMatch(ngram ->
-                ngram.contains("'") || ngram.contains("\"") || ngram.contains("--") || ngram.contains(";"))) {
+        if (!chunks.stream().allMatch(FullTextSearchDataBuilder::isSafe)) {
             throw new IllegalArgumentException("Invalid characters (SQL injection?) in search text");
         }
 
         return chunks;
     }
 
+    /**
+     * Computes the checksum of raw search text (not of ngrams - the point is to avoid calculating ngrams for unchanged
+     * text). The checksum is a non-cryptographic 128-bit hash: it only detects changes, there's no need to resist
+     * deliberate collisions.
+     *
+     * @param text text returned by {@link #collectFullTextSearchText()}
+     * @return checksum, the same as the one computed by {@link #rebuildFullTextSearchNgrams()} for the same text
+     */
+    public static String computeFullTextSearchChecksum(String text) {
+        return CHECKSUM_PREFIX + new Murmur3Hasher128()
+                .putString(text)
+                .hashToHex();
+    }
+
+    /**
+     * Creates full-text search chunks (see {@link #createFullTextSearchChunks(String, NgramUtilsConfig)}) and joins
+     * them with spaces, stopping as soon as the length limit is reached. The result is the same as joining
+     * {@link #createFullTextSearchChunks(String, NgramUtilsConfig)}, but chunks are deduplicated and validated while
+     * being written directly into a buffer bounded by the length limit (see {@link FullTextSearchDataBuilder}), without
+     * intermediate collections. Chunks beyond the limit are neither deduplicated nor validated.
+     *
+     * @param text      source text
+     * @param config    ngram utils configuration
+     * @param maxLength maximum length of the result
+     * @return full-text search data
+     * @throws IllegalArgumentException invalid characters (SQL injection?) in search text
+     */
+    public static String buildFullTextSearchData(String text, NgramUtilsConfig config, int maxLength) {
+        return buildFullTextSearchData(text, config, FullTextSearchStrategy.NGRAMS, maxLength);
+    }
+
+    /**
+     * Creates full-text search data according to the given strategy. For {@link FullTextSearchStrategy#NGRAMS}, see
+     * {@link #buildFullTextSearchData(String, NgramUtilsConfig, int)}. For {@link FullTextSearchStrategy#NATIVE_PREFIX}
+     * and {@link FullTextSearchStrategy#TRIGRAM}, unique words (except for stop words if
+     * {@link NgramUtilsConfig#tryEnglishMorphAnalysis()} is on) are joined with spaces, stopping as soon as the length
+     * limit is reached.
+     *
+     * @param text      source text
+     * @param config    ngram utils configuration
+     * @param strategy  full-text search strategy
+     * @param maxLength maximum length of the result
+     * @return full-text search data
+     * @throws IllegalArgumentException invalid characters (SQL injection?) in search text
+     */
+    public static String buildFullTextSearchData(String text, NgramUtilsConfig config,
+            FullTextSearchStrategy strategy, int maxLength) {
+        checkNotNull(strategy, "strategy");
+        var builder = new FullTextSearchDataBuilder(maxLength);
+
+        if (strategy != FullTextSearchStrategy.NGRAMS) {
+            for (String word : TextUtils.collectUniqueWords(text, config.isReduceAccents())) {
+                if ((!config.tryEnglishMorphAnalysis() || !EnglishUtils.stopWord(word)) && !builder.append(word)) {
+                    break;
+                }
+            }
+
+            return builder.toString();
+        }
+
+        // add words that are shorter than the minimum ngram length, otherwise they'll be omitted
+        for (String word : TextUtils.collectUniqueWords(text, config.isReduceAccents())) {
+            if ((word.length() < config.getMinNgramLength())
+                    // either English morph analysis is off or the word is not an English stop word
+                    && (!config.tryEnglishMorphAnalysis() || !EnglishUtils.stopWord(word))
+                    // stop appending chunks as soon as the limit is reached
+                    && !builder.append(word)) {
+                return builder.toString();
+            }
+        }
+
+        for (String ngram : NgramUtils.createNgrams(text, NgramUtils.Mode.ALL, config)) {
+            if (!builder.append(ngram)) {
+                break;
+            }
+        }
+
+        // in Postgres, tsvector doesn't look exactly like this, but it doesn't matter - it can be written as a string
+        return builder.toString();
+    }
+
     /**
      * Assigned automatically during each insert/update using data from {@link #getFullTextSearchDataSuppliers()}.
      * <p>
@@ -208,6 +342,21 @@ public abstract class FullTextSearchAwareEntity<ID> extends AuditableEntity<ID>
     @Nonnull
     public abstract NgramUtilsConfig getNgramUtilsConfig();
 
+    /**
+     * Returns the way search data is stored and searched (and the search data column type, see
+     * {@link FullTextSearchStrategy#TRIGRAM}). Must be the same for all instances of each class. After
+     * changing it for existing entities, search data must be rebuilt with
+     * {@code FullTextSearchReindexService.reindex()} - checksums don't reflect the strategy.
+     *
+     * @return {@link FullTextSearchStrategy#NGRAMS} by default
+     */
+    @JsonIgnore
+    @Transient
+    @Nonnull
+    public FullTextSearchStrategy getFullTextSearchStrategy() {
+        return FullTextSearchStrategy.NGRAMS;
+    }
+
     /**
      * Suppliers are responsible for explicit stringification of property values: lists, enums, numbers, etc. This gives
      * more predictable results then, for example, calling {@link Object#toString()} in this method.
@@ -222,26 +371,68 @@ public abstract class FullTextSearchAwareEntity<ID> extends AuditableEntity<ID>
     @Nonnull
     protected abstract Collection<Supplier<String>> getFullTextSearchDataSuppliers();
 
+    /**
+     * Names of the basic persistent properties read by {@link #getFullTextSearchDataSuppliers()}. If declared,
+     * {@code FullTextSearchReindexService.reindex()} selects only these columns (plus the ID and the checksum) instead
+     * of loading whole entities, and the suppliers are called on transient instances having only these properties
+     * set. Therefore, the suppliers must not need anything else, such as associations.
+     *
+     * @return empty by default, which means whole entities are loaded
+     */
+    @JsonIgnore
+    @Transient
+    @Nonnull
+    public Collection<String> getFullTextSearchSourceProperties() {
+        return List.of();
+    }
+
+    /**
+     * Opt-in for deferred ngram rebuild: if {@code true}, {@link #rebuildFullTextSearchNgrams()} doesn't compute ngrams
+     * (which may take a while for large texts) while the transaction and its DB connection are held. Instead, it marks
+     * the search data as stale, and ngrams are rebuilt in background after the transaction has been committed (see
+     * {@code FullTextSearchRebuildService}). Until then, the entity is searchable by its previous search data.
+     * <p>
+     * WARNING: the rebuild service is only created if {@code app.full-text-search.deferred-rebuild.enabled} is
+     * {@code true}. Otherwise, search data stays stale.
+     *
+     * @return {@code false} by default
+     */
+    @JsonIgnore
+    @Transient
+    protected boolean isFullTextSearchRebuildDeferred() {
+        return false;
+    }
+
+    /**
+     * Checks if ngram rebuild has been deferred, but not performed yet.
+     *
+     * @return {@code true} if {@link #getFullTextSearchDataChecksum()} starts with {@value #STALE_CHECKSUM_PREFIX}
+     */
+    @JsonIgnore
+    @Transient
+    public boolean isFullTextSearchDataStale() {
+        return StringUtils.startsWith(fullTextSearchDataChecksum, STALE_CHECKSUM_PREFIX);
+    }
+
     /**
      * Called by Hibernate when it has decided to insert a new entity in DB or update an existing one (i.e. some
      * persistent properties have changed in memory). Assigns {@link #getFullTextSearchData()} and
      * {@link #getFullTextSearchDataChecksum()} using {@link #getFullTextSearchDataSuppliers()} and {@link NgramUtils}.
+     * If {@link #isFullTextSearchRebuildDeferred()}, only marks the search data as stale.
+     * <p>
+     * The checksum is fed with supplier values one by one, so the search text is not even joined if it has not
+     * changed. As a consequence, the suppliers are called twice if it has changed. Legacy checksums (computed by
+     * {@link ChecksumUtils#computeJsonChecksum}) are still recognized: if the search text has not changed, the
+     * checksum is replaced with the new one without rebuilding ngrams.
      */
     @PrePersist
     @PreUpdate
     @SuppressWarnings("JpaEntityListenerInspection") // it's OK to have the same callback in parent class
     public void rebuildFullTextSearchNgrams() {
-        // compute checksum of raw text, not of ngrams (the point is to avoid calculating ngrams for unchanged text)
-        String ftsText = callFullTextSearchDataSuppliers();
-        String newChecksum = ChecksumUtils.computeJsonChecksum(ftsText);
+        String newChecksum = computeFullTextSearchChecksum();
 
-        // ignore blank checksum - this should never happen, but just to prevent the app from crashing in case of a bug
-        if (StringUtils.isBlank(newChecksum)) {
-            log.error("FTS checksum blank - this should never happen! Rebuilding FTS ngrams for [{}] ID '{}' anyway.",
-                    getClass().getName(), getId());
-        }
         // do nothing if search content has not changed since previous computation
-        else if (newChecksum.equals(fullTextSearchDataChecksum)) {
+        if (newChecksum.equals(fullTextSearchDataChecksum)) {
             if (log.isTraceEnabled()) {
                 log.trace("Not rebuilding FTS chunks: content not changed for [{}] ID '{}'",
                         getClass().getName(), getId());
@@ -250,23 +441,25 @@ public abstract class FullTextSearchAwareEntity<ID> extends AuditableEntity<ID>
             return;
         }
 
-        var builder = new StringBuilder(ESTIMATED_FTS_BUILDER_CAPACITY);
-        var ftsChunks = createFullTextSearchChunks(ftsText, getNgramUtilsConfig());
-        // stop appending chunks as soon as the limit is reached
-        ftsChunks.stream()
-                .takeWhile(chunk -> {
-                    int separatorLength = builder.isEmpty() ? 0 : 1;
-                    return builder.length() + separatorLength + chunk.length() <= getMaxFullTextSearchDataLength();
-                }).forEach(chunk -> {
-                    if (!builder.isEmpty()) {
-                        builder.append(" ");
-                    }
-
-                    builder.append(chunk);
-                });
+        String ftsText = collectFullTextSearchText();
 
-        // in Postgres, tsvector doesn't look exactly like this, but it doesn't matter - it can be written as a string
-        setFullTextSearchData(builder.toString());
+        // upgrade legacy checksum if search content has not changed since previous computation
+        if (isLegacyChecksum(fullTextSearchDataChecksum)
+                && fullTextSearchDataChecksum.equals(ChecksumUtils.computeJsonChecksum(ftsText))) {
+            fullTextSearchDataChecksum = newChecksum;
+            log.debug("Not rebuilding FTS chunks, upgraded legacy checksum for [{}] ID '{}'",
+                    getClass().getName(), getId());
+            return;
+        }
+        // don't compute ngrams now, only mark them stale (if not yet)
+        else if (isFullTextSearchRebuildDeferred()) {
+            fullTextSearchDataChecksum = STALE_CHECKSUM_PREFIX + newChecksum;
+            log.debug("Deferred rebuilding FTS chunks for [{}] ID '{}'", getClass().getName(), getId());
+            return;
+        }
+
+        setFullTextSearchData(buildFullTextSearchData(ftsText, getNgramUtilsConfig(), getFullTextSearchStrategy(),
+                getMaxFullTextSearchDataLength()));
         fullTextSearchDataChecksum = newChecksum;
 
         if (log.isTraceEnabled()) {
@@ -277,8 +470,13 @@ public abstract class FullTextSearchAwareEntity<ID> extends AuditableEntity<ID>
         }
     }
 
+    /**
+     * Calls {@link #getFullTextSearchDataSuppliers()} and joins non-blank values with spaces.
+     *
+     * @return raw search text (before ngrams are created)
+     */
     @Nonnull
-    private String callFullTextSearchDataSuppliers() {
+    public String collectFullTextSearchText() {
         Collection<Supplier<String>> suppliers = getFullTextSearchDataSuppliers();
 
         if (CollectionUtils.isEmpty(suppliers)) {
@@ -292,20 +490,64 @@ public abstract class FullTextSearchAwareEntity<ID> extends AuditableEntity<ID>
         var builder = new StringBuilder(estimatedCapacity);
 
         // do not process each field individually - let the ngram creator detect unique words
+        // (this is more memory-effective than 'Collectors.joining(" ")' for large texts)
+        forEachFullTextSearchValue(str -> {
+            if (!builder.isEmpty()) {
+                builder.append(" ");
+            }
+
+            builder.append(str);
+        });
+
+        return builder.toString();
+    }
+
+    /**
+     * Computes the same checksum as {@link #computeFullTextSearchChecksum(String)} does for
+     * {@link #collectFullTextSearchText()}, but without joining supplier values.
+     *
+     * @return checksum
+     */
+    private String computeFullTextSearchChecksum() {
+        var hasher = new Murmur3Hasher128();
+        var empty = new MutableBoolean(true);
+
+        forEachFullTextSearchValue(str -> {
+            if (empty.isFalse()) {
+                hasher.putChar(' ');
+            }
+
+            hasher.putString(str);
+            empty.setFalse();
+        });
+
+        return CHECKSUM_PREFIX + hasher.hashToHex();
+    }
+
+    private void forEachFullTextSearchValue(Consumer<String> consumer) {
+        Collection<Supplier<String>> suppliers = getFullTextSearchDataSuppliers();
+
+        if (CollectionUtils.isEmpty(suppliers)) {
+            return;
+        }
+
         suppliers.stream()
                 .filter(Objects::nonNull)
                 .map(Supplier::get)
                 .filter(StringUtils::isNotBlank)
-                // this is more memory-effective than 'Collectors.joining(" ")' for large texts
-                .forEach(str -> {
-                    if (!builder.isEmpty()) {
-                        builder.append(" ");
-                    }
-
-                    builder.append(str);
-                });
+                .forEach(consumer);
+    }
 
-        return builder.toString();
+    /**
+     * Checks if the checksum has been computed by {@link ChecksumUtils#computeJsonChecksum}.
+     *
+     * @param checksum checksum to check
+     * @return {@code true} if the checksum is legacy
+     */
+    private static boolean isLegacyChecksum(@Nullable String checksum) {
+        return StringUtils.isNotBlank(checksum)
+                && !checksum.startsWith(CHECKSUM_PREFIX)
+                && !checksum.startsWith(STALE_CHECKSUM_PREFIX);
     }
 
 }
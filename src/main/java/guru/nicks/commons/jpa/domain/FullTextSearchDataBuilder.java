@@ -0,0 +1,209 @@
+package guru.nicks.commons.jpa.domain;
+
+import java.util.Arrays;
+
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
+
+/**
+ * Joins unique full-text search chunks with spaces, writing them directly into a char buffer which never grows beyond
+ * the length limit. Duplicates are detected with an open-addressing hash table of primitives pointing to chunks
+ * already in the buffer, i.e. no intermediate strings or boxed objects are created. Characters are validated while
+ * being copied.
+ * <p>
+ * Not thread-safe, each instance is meant for building a single search data value.
+ */
+final class FullTextSearchDataBuilder {
+
+    private static final int INITIAL_BUFFER_CAPACITY = 1024;
+    private static final int INITIAL_TABLE_CAPACITY = 256;
+
+    private final int maxLength;
+    private char[] buffer;
+    private int length;
+
+    /**
+     * Hash table slots: chunk offset in {@link #buffer} plus 1 (0 means empty slot), chunk length, chunk hash.
+     */
+    private int[] slotOffsets = new int[INITIAL_TABLE_CAPACITY];
+    private int[] slotLengths = new int[INITIAL_TABLE_CAPACITY];
+    private int[] slotHashes = new int[INITIAL_TABLE_CAPACITY];
+    private int chunkCount;
+
+    /**
+     * Constructor.
+     *
+     * @param maxLength maximum length of the result
+     */
+    FullTextSearchDataBuilder(int maxLength) {
+        check(maxLength, "maxLength").constraint(value -> value >= 0, "must not be negative");
+        this.maxLength = maxLength;
+        buffer = new char[Math.min(maxLength, INITIAL_BUFFER_CAPACITY)];
+    }
+
+    /**
+     * Checks chunk characters in a single pass.
+     *
+     * @param chunk chunk to check
+     * @return {@code false} if the chunk contains quotes, semicolons, or double dashes (SQL injection?)
+     */
+    static boolean isSafe(CharSequence chunk) {
+        char previous = 0;
+
+        for (int i = 0, len = chunk.length(); i < len; i++) {
+            char c = chunk.charAt(i);
+
+            if (!isSafe(previous, c)) {
+                return false;
+            }
+
+            previous = c;
+        }
+
+        return true;
+    }
+
+    /**
+     * Appends the chunk unless it has already been appended.
+     *
+     * @param chunk chunk to append
+     * @return {@code false} if the chunk doesn't fit in the length limit, meaning no more chunks should be appended
+     * @throws IllegalArgumentException chunk contains invalid characters, see {@link #isSafe(CharSequence)}
+     */
+    boolean append(CharSequence chunk) {
+        int chunkLength = chunk.length();
+
+        if (chunkLength == 0) {
+            return true;
+        }
+
+        int hash = hash(chunk);
+        int slot = findSlot(chunk, hash);
+
+        // duplicate
+        if (slotOffsets[slot] != 0) {
+            return true;
+        }
+
+        int separatorLength = (length == 0) ? 0 : 1;
+        int newLength = length + separatorLength + chunkLength;
+
+        if (newLength > maxLength) {
+            return false;
+        }
+
+        ensureBufferCapacity(newLength);
+
+        if (separatorLength > 0) {
+            buffer[length++] = ' ';
+        }
+
+        int offset = length;
+        char previous = 0;
+
+        for (int i = 0; i < chunkLength; i++) {
+            char c = chunk.charAt(i);
+
+            if (!isSafe(previous, c)) {
+                throw new IllegalArgumentException("Invalid characters (SQL injection?) in search text");
+            }
+
+            buffer[length++] = c;
+            previous = c;
+        }
+
+        slotOffsets[slot] = offset + 1;
+        slotLengths[slot] = chunkLength;
+        slotHashes[slot] = hash;
+
+        // keep load factor below 0.5
+        if (++chunkCount * 2 > slotOffsets.length) {
+            growTable();
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    private static boolean isSafe(char previous, char c) {
+        return (c != '\'') && (c != '"') && (c != ';') && ((c != '-') || (previous != '-'));
+    }
+
+    private static int hash(CharSequence chunk) {
+        int hash = 0;
+
+        for (int i = 0, len = chunk.length(); i < len; i++) {
+            hash = 31 * hash + chunk.charAt(i);
+        }
+
+        // spread higher bits to lower ones, as the table index is taken from the lower bits
+        return hash ^ (hash >>> 16);
+    }
+
+    private int findSlot(CharSequence chunk, int hash) {
+        int mask = slotOffsets.length - 1;
+        int slot = hash & mask;
+
+        while ((slotOffsets[slot] != 0) && !isChunkInSlot(chunk, hash, slot)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private boolean isChunkInSlot(CharSequence chunk, int hash, int slot) {
+        if ((slotHashes[slot] != hash) || (slotLengths[slot] != chunk.length())) {
+            return false;
+        }
+
+        int offset = slotOffsets[slot] - 1;
+
+        for (int i = 0, len = chunk.length(); i < len; i++) {
+            if (buffer[offset + i] != chunk.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void ensureBufferCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            int newCapacity = (int) Math.min(maxLength, Math.max(capacity, buffer.length * 2L));
+            buffer = Arrays.copyOf(buffer, newCapacity);
+        }
+    }
+
+    private void growTable() {
+        int[] oldOffsets = slotOffsets;
+        int[] oldLengths = slotLengths;
+        int[] oldHashes = slotHashes;
+
+        int newCapacity = oldOffsets.length * 2;
+        int mask = newCapacity - 1;
+        slotOffsets = new int[newCapacity];
+        slotLengths = new int[newCapacity];
+        slotHashes = new int[newCapacity];
+
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] == 0) {
+                continue;
+            }
+
+            // all chunks are unique, no need to compare them
+            int slot = oldHashes[i] & mask;
+
+            while (slotOffsets[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            slotOffsets[slot] = oldOffsets[i];
+            slotLengths[slot] = oldLengths[i];
+            slotHashes[slot] = oldHashes[i];
+        }
+    }
+
+}
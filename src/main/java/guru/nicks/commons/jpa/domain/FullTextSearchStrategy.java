@@ -0,0 +1,41 @@
+package guru.nicks.commons.jpa.domain;
+
+/**
+ * How {@link FullTextSearchAwareEntity} search data is stored and searched.
+ *
+ * @see FullTextSearchAwareEntity#getFullTextSearchStrategy()
+ */
+public enum FullTextSearchStrategy {
+
+    /**
+     * Search data consists of ngrams (and words shorter than the minimum ngram length) created by the application.
+     * Search text is converted to ngrams as well, they're joined with {@code OR} (see
+     * {@link EnhancedSqlDialect#createLenientFullTextSearchCondition}) and matched by user-defined DB functions (see
+     * {@link EnhancedSqlDialect#getFullTextSearchTemplate()}). Supports partial matching anywhere inside words, at the
+     * cost of large search data.
+     */
+    NGRAMS,
+
+    /**
+     * Search data consists of unique words only. Search text is converted to a native DB query matching words by their
+     * prefixes (see {@link EnhancedSqlDialect#createPrefixFullTextSearchQuery}), which is compared to the search data
+     * column directly, so that the DB can select candidates using its full-text index (GIN in Postgres) only. Search
+     * data is much smaller than with {@link #NGRAMS}, but words are matched by their beginnings only.
+     */
+    NATIVE_PREFIX,
+
+    /**
+     * Search data consists of unique words (as for {@link #NATIVE_PREFIX}), stored as plain text, and is matched by
+     * trigram similarity of search words (see {@link EnhancedSqlDialect#getTrigramFullTextSearchTemplate()}). No ngrams
+     * are created by the application, the DB creates trigrams when indexing. Tolerates typos and matches parts of words
+     * anywhere. For example, in Postgres (the {@code pg_trgm} extension is needed):
+     * <pre>
+     *  CREATE EXTENSION IF NOT EXISTS pg_trgm;
+     *  &lt;column name="full_text_search_data" type="text"/&gt;
+     *  CREATE INDEX ... USING gin (full_text_search_data gin_trgm_ops);
+     * </pre>
+     * The entity property must then be declared as plain text (without {@code @Type(PostgreSQLTSVectorType.class)}).
+     */
+    TRIGRAM
+
+}
@@ -24,4 +24,11 @@ public class JpaConstants {
      */
     public static final int INTERNAL_PAGE_SIZE = 500;
 
+    /**
+     * Maximum number of IDs in a single {@code IN (...)} clause, a power of two. Smaller chunks are padded up to the
+     * next power of two, so only a handful of distinct SQL statements (and therefore query plans) exist per entity.
+     * This is also well below the bind parameter limits of all major databases.
+     */
+    public static final int IN_CLAUSE_CHUNK_SIZE = 1024;
+
 }
@@ -0,0 +1,150 @@
+package guru.nicks.commons.jpa.domain;
+
+import java.util.HexFormat;
+
+/**
+ * Streaming (incremental) non-cryptographic 128-bit hash, MurmurHash3 x64 128 algorithm. Characters are fed one by one
+ * as UTF-16 code units (2 bytes each, little-endian), so no intermediate strings or byte arrays are created, and
+ * feeding several strings in a row yields the same hash as feeding their concatenation.
+ * <p>
+ * Not thread-safe, each instance is meant for a single hash computation.
+ */
+final class Murmur3Hasher128 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Number of characters (2 bytes each) in a 16-byte block.
+     */
+    private static final int CHARS_PER_BLOCK = 8;
+
+    /**
+     * Number of characters (2 bytes each) in a 8-byte half-block.
+     */
+    private static final int CHARS_PER_HALF_BLOCK = 4;
+
+    private long h1;
+    private long h2;
+
+    /**
+     * First and second halves of the current (incomplete) block.
+     */
+    private long k1;
+    private long k2;
+    private int charsInBlock;
+
+    /**
+     * Total length in bytes.
+     */
+    private long length;
+
+    /**
+     * Feeds all characters of the given string.
+     *
+     * @param str string to feed
+     * @return this instance
+     */
+    Murmur3Hasher128 putString(CharSequence str) {
+        for (int i = 0, len = str.length(); i < len; i++) {
+            putChar(str.charAt(i));
+        }
+
+        return this;
+    }
+
+    /**
+     * Feeds a single character.
+     *
+     * @param c character to feed
+     * @return this instance
+     */
+    Murmur3Hasher128 putChar(char c) {
+        long value = c & 0xFFFFL;
+
+        if (charsInBlock < CHARS_PER_HALF_BLOCK) {
+            k1 |= value << (Character.SIZE * charsInBlock);
+        } else {
+            k2 |= value << (Character.SIZE * (charsInBlock - CHARS_PER_HALF_BLOCK));
+        }
+
+        length += Character.BYTES;
+
+        if (++charsInBlock == CHARS_PER_BLOCK) {
+            processBlock();
+        }
+
+        return this;
+    }
+
+    /**
+     * Finishes hash computation.
+     *
+     * @return 32 lowercase hex characters
+     */
+    String hashToHex() {
+        // tail - the last incomplete block
+        if (charsInBlock > CHARS_PER_HALF_BLOCK) {
+            h2 ^= mixK2(k2);
+        }
+
+        if (charsInBlock > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+
+        h1 += h2;
+        h2 += h1;
+
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+
+        h1 += h2;
+        h2 += h1;
+
+        HexFormat hexFormat = HexFormat.of();
+        return hexFormat.toHexDigits(h1) + hexFormat.toHexDigits(h2);
+    }
+
+    private void processBlock() {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+
+        k1 = 0;
+        k2 = 0;
+        charsInBlock = 0;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+}
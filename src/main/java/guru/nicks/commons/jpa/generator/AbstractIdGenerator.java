@@ -0,0 +1,145 @@
+package guru.nicks.commons.jpa.generator;
+
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.internal.util.ReflectHelper;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.function.Function;
+
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
+import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
+
+/**
+ * Base class for ID generators which assign IDs on insert only, and only if the entity doesn't have an ID yet.
+ * <p>
+ * The ID getter is bound once, in the constructor, to a {@link Function} created by {@link LambdaMetafactory}, so
+ * calling it on each insert costs as much as a direct method call (no varargs arrays, no access checks, can be inlined
+ * by JIT) - unlike {@link Method#invoke(Object, Object...)}. If the lambda can't be created (for example, if the entity
+ * class can't be accessed privately by this module), a {@link MethodHandle} is used instead.
+ */
+@Slf4j
+public abstract class AbstractIdGenerator implements BeforeExecutionGenerator {
+
+    private final String idGetterName;
+    private final Function<Object, Object> idGetter;
+
+    /**
+     * Constructor.
+     *
+     * @param idMember   entity ID field
+     * @param idType     type the ID field must be assignable from
+     * @param idTypeName ID type name for the error message
+     * @throws IllegalArgumentException ID field type is not assignable from {@code idType}, or the field has no getter
+     */
+    protected AbstractIdGenerator(Member idMember, Class<?> idType, String idTypeName) {
+        check(ReflectHelper.getPropertyType(idMember), idMember.getName()).constraint(
+                idType::isAssignableFrom, "must be " + idTypeName + " to assign the value generated");
+
+        Method getter = checkNotNull(ReflectHelper.getGetterOrNull(idMember.getDeclaringClass(), idMember.getName()),
+                idMember.getName() + " getter");
+        idGetterName = getter.getName();
+        idGetter = bindGetter(getter);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, @Nullable Object currentValue,
+            EventType eventType) {
+        Object existingId;
+        // WARNING: currentValue argument is null even if the ID has already been set for the entity, therefore
+        // calling the getter is the only way to go
+        try {
+            existingId = idGetter.apply(owner);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to call entity ID getter method '" + idGetterName + "'", e);
+        }
+
+        if (existingId != null) {
+            return existingId;
+        }
+
+        return generateNewId(session);
+    }
+
+    /**
+     * Generates a new ID. Called only if the entity doesn't have an ID yet.
+     *
+     * @param session Hibernate session
+     * @return ID generated
+     */
+    protected abstract Object generateNewId(SharedSessionContractImplementor session);
+
+    private static Function<Object, Object> bindGetter(Method getter) {
+        CallSite callSite;
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(getter.getDeclaringClass(),
+                    MethodHandles.lookup());
+            MethodHandle getterHandle = lookup.unreflect(getter);
+
+            callSite = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getterHandle,
+                    MethodType.methodType(getter.getReturnType(), getter.getDeclaringClass()));
+        } catch (ReflectiveOperationException | LambdaConversionException | RuntimeException e) {
+            log.debug("Failed to bind ID getter '{}' of {} to a lambda, falling back to method handle: {}",
+                    getter.getName(), getter.getDeclaringClass().getName(), e.getMessage());
+            return bindGetterToMethodHandle(getter);
+        }
+
+        try {
+            @SuppressWarnings("unchecked")
+            Function<Object, Object> function = (Function<Object, Object>) callSite.getTarget().invokeExact();
+            return function;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // the call site has been linked, so its factory failing is a bug rather than a reason to fall back
+            throw new IllegalStateException("Failed to create lambda for entity ID getter method '"
+                    + getter.getName() + "'", e);
+        }
+    }
+
+    private static Function<Object, Object> bindGetterToMethodHandle(Method getter) {
+        MethodHandle getterHandle;
+
+        try {
+            getter.setAccessible(true);
+            getterHandle = MethodHandles.lookup()
+                    .unreflect(getter)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("Failed to access entity ID getter method '" + getter.getName() + "'", e);
+        }
+
+        return owner -> {
+            try {
+                return getterHandle.invokeExact(owner);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // getters can throw checked exceptions only if they're declared (or sneaky-thrown)
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        };
+    }
+
+}
@@ -1,5 +1,6 @@
 package guru.nicks.commons.jpa.generator;
 
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
 import guru.nicks.commons.sortableid.TimeSortableId;
 
 import org.hibernate.annotations.IdGeneratorType;
@@ -21,6 +22,18 @@ import static java.lang.annotation.ElementType.METHOD;
  * a certain delta is easy guessable by comparing the timestamp to the real one.
  * <p>
  * When called for an object already having a non-null ID, does nothing.
+ * <p>
+ * With {@link #allocationSize()} greater than 1, sequence values are fetched in blocks (pooled-lo optimization): the
+ * value fetched from the sequence is the first one of a block, the rest of the block is handed out from memory without
+ * DB round trips. The sequence must then be incremented by the same number, for example:
+ * <pre>
+ *  CREATE SEQUENCE my_seq INCREMENT BY 50;
+ * </pre>
+ * Alternatively, with {@link #fetchSize()} greater than 1, a block of values is fetched from a sequence incremented by
+ * 1 in a single DB round trip (see {@link EnhancedSqlDialect#getNextSequenceValuesTemplate()}).
+ * <p>
+ * Each generator instance (i.e. each node) reserves its own blocks, so IDs created by different nodes interleave, but
+ * within a node they're handed out in ascending order.
  */
 @IdGeneratorType(SequenceBasedTimeSortableIdGeneratorImpl.class)
 @Retention(RetentionPolicy.RUNTIME)
@@ -30,4 +43,20 @@ public @interface SequenceBasedTimeSortableIdGenerator {
 
     String sequenceName();
 
+    /**
+     * Number of sequence values reserved in a single DB round trip. Must be equal to the sequence's increment.
+     *
+     * @return allocation size, 1 means no pooling (one DB round trip per ID)
+     */
+    int allocationSize() default 1;
+
+    /**
+     * Number of sequence values fetched in a single DB round trip, for sequences incremented by 1. Can't be combined
+     * with {@link #allocationSize()}. Requires {@link EnhancedSqlDialect#getNextSequenceValuesTemplate()} to be
+     * supported.
+     *
+     * @return fetch size, 1 means one DB round trip per ID
+     */
+    int fetchSize() default 1;
+
 }
@@ -1,75 +1,348 @@
 package guru.nicks.commons.jpa.generator;
 
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
 import guru.nicks.commons.sortableid.TimeSortableId;
 
 import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
 import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
 import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
-import org.hibernate.generator.BeforeExecutionGenerator;
-import org.hibernate.generator.EventType;
-import org.hibernate.generator.EventTypeSets;
 import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
-import org.hibernate.internal.util.ReflectHelper;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
-import java.lang.reflect.Method;
-import java.util.EnumSet;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static guru.nicks.commons.validation.dsl.ValiDsl.check;
 import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotBlank;
 
 /**
+ * Sequence values are fetched with native SQL statements (created once, in the constructor) executed directly via the
+ * session's {@link JdbcCoordinator}, i.e. no Hibernate query objects are created for each ID. Statements are prepared
+ * each time, but with the same SQL, so the JDBC driver can reuse them (Postgres driver caches server-side prepared
+ * statements per connection).
+ * <p>
+ * With {@link SequenceBasedTimeSortableIdGenerator#allocationSize()} greater than 1, the sequence increment is checked
+ * (if {@link EnhancedSqlDialect#getSequenceIncrementQuery()} is supported) before the first block is fetched - not in
+ * the constructor, because the sequence may be created after the generator, e.g. by Hibernate's schema export.
+ *
  * @see SequenceBasedTimeSortableIdGenerator
  */
-public class SequenceBasedTimeSortableIdGeneratorImpl implements BeforeExecutionGenerator {
+@Slf4j
+public class SequenceBasedTimeSortableIdGeneratorImpl extends AbstractIdGenerator {
 
     /**
      * SQL statement that fetches the sequence's next value.
      */
     private final String sequenceGetNextValueSql;
-    private final Method getter;
+
+    /**
+     * SQL statement that fetches {@link #fetchSize} next values of the sequence, {@code null} if not needed.
+     */
+    @Nullable
+    private final String sequenceGetNextValuesSql;
+
+    /**
+     * SQL statement that fetches the sequence increment, {@code null} if not needed or not supported.
+     */
+    @Nullable
+    private final String sequenceGetIncrementSql;
+
+    /**
+     * Sequence name and schema ({@code null} means the current one), as bound to {@link #sequenceGetIncrementSql}.
+     */
+    private final String sequenceName;
+    @Nullable
+    private final String sequenceSchema;
+
+    /**
+     * Whether the sequence increment has been checked against {@link #allocationSize}. Accessed under
+     * {@link #blockFetchLock} only.
+     */
+    private boolean sequenceIncrementChecked;
+
+    /**
+     * @see SequenceBasedTimeSortableIdGenerator#allocationSize()
+     */
+    private final int allocationSize;
+
+    /**
+     * @see SequenceBasedTimeSortableIdGenerator#fetchSize()
+     */
+    private final int fetchSize;
+
+    /**
+     * Block of sequence values currently being handed out, {@code null} before the first block is fetched.
+     */
+    private final AtomicReference<ValueBlock> currentBlock = new AtomicReference<>();
+
+    /**
+     * Makes only one thread fetch the next block when the current one is exhausted. Not {@code synchronized}, so that
+     * virtual threads waiting for the DB don't pin their carrier threads.
+     */
+    private final Lock blockFetchLock = new ReentrantLock();
 
     public SequenceBasedTimeSortableIdGeneratorImpl(SequenceBasedTimeSortableIdGenerator annotation, Member idMember,
             CustomIdGeneratorCreationContext context) {
-        check(ReflectHelper.getPropertyType(idMember), idMember.getName()).constraint(
-                String.class::isAssignableFrom, "must be String to assign the value generated");
+        super(idMember, String.class, "String");
+
+        String qualifiedSequenceName = annotation.sequenceName();
+        checkNotBlank(qualifiedSequenceName, "sequence name");
 
-        String sequenceName = annotation.sequenceName();
-        checkNotBlank(sequenceName, "sequence name");
+        allocationSize = annotation.allocationSize();
+        check(allocationSize, "allocation size").constraint(value -> value > 0, "must be positive");
+
+        fetchSize = annotation.fetchSize();
+        check(fetchSize, "fetch size").constraint(value -> value > 0, "must be positive");
+        check(fetchSize, "fetch size").constraint(value -> (value == 1) || (allocationSize == 1),
+                "can't be combined with allocation size");
 
         // generate and cache SQL for querying the given sequence
         JdbcEnvironment jdbcEnvironment = context.getServiceRegistry().getService(JdbcEnvironment.class);
         Dialect dialect = jdbcEnvironment.getDialect();
-        sequenceGetNextValueSql = dialect.getSequenceSupport().getSequenceNextValString(sequenceName);
+        EnhancedSqlDialect sqlDialect = resolveSqlDialect(dialect);
+
+        sequenceGetNextValueSql = dialect.getSequenceSupport().getSequenceNextValString(qualifiedSequenceName);
+        sequenceGetNextValuesSql = (fetchSize == 1)
+                ? null
+                : createNextValuesSql(dialect, sqlDialect, qualifiedSequenceName);
+
+        int schemaSeparatorIndex = qualifiedSequenceName.lastIndexOf('.');
+        sequenceName = qualifiedSequenceName.substring(schemaSeparatorIndex + 1);
+        sequenceSchema = (schemaSeparatorIndex < 0)
+                ? null
+                : qualifiedSequenceName.substring(0, schemaSeparatorIndex);
+        sequenceGetIncrementSql = ((allocationSize == 1) || (sqlDialect == null))
+                ? null
+                : sqlDialect.getSequenceIncrementQuery();
 
-        getter = ReflectHelper.getGetterOrNull(idMember.getDeclaringClass(), idMember.getName());
+        if ((allocationSize > 1) && (sequenceGetIncrementSql == null)) {
+            log.warn("Can't check if sequence '{}' is incremented by allocation size {} for {} - please make sure it"
+                    + " is, otherwise IDs may be duplicated", qualifiedSequenceName, allocationSize,
+                    dialect.getClass().getSimpleName());
+        }
     }
 
     @Override
-    public EnumSet<EventType> getEventTypes() {
-        return EventTypeSets.INSERT_ONLY;
+    protected Object generateNewId(SharedSessionContractImplementor session) {
+        long nextValue = ((allocationSize == 1) && (fetchSize == 1))
+                ? fetchSequenceValues(session, sequenceGetNextValueSql, 1)[0]
+                : nextPooledValue(session);
+        return new TimeSortableId(nextValue).getId();
     }
 
-    @Override
-    public Object generate(SharedSessionContractImplementor session, Object owner, @Nullable Object currentValue,
-            EventType eventType) {
-        Object existingId;
-        // WARNING: currentValue argument is null even if the ID has already been set for the entity, therefore
-        // calling the getter is the only way to go
+    @Nullable
+    private static EnhancedSqlDialect resolveSqlDialect(Dialect dialect) {
+        // the only dialect supported so far
+        return (dialect instanceof PostgreSQLDialect)
+                ? EnhancedSqlDialect.POSTGRES
+                : null;
+    }
+
+    private static String createNextValuesSql(Dialect dialect, @Nullable EnhancedSqlDialect sqlDialect,
+            String sequenceName) {
+        String template = (sqlDialect == null)
+                ? null
+                : sqlDialect.getNextSequenceValuesTemplate();
+
+        if (template == null) {
+            throw new UnsupportedOperationException("Fetching several sequence values at once is not supported for "
+                    + dialect.getClass().getSimpleName());
+        }
+
+        return String.format(Locale.US, template, sequenceName);
+    }
+
+    /**
+     * Hands out the next value of the current block. Lock-free unless the block is exhausted, in which case the next
+     * block is fetched by a single thread while the others wait for it.
+     *
+     * @param session Hibernate session to fetch the next block with
+     * @return sequence value
+     */
+    private long nextPooledValue(SharedSessionContractImplementor session) {
+        while (true) {
+            ValueBlock block = currentBlock.get();
+
+            if (block != null) {
+                // long, so that threads incrementing it past the block size can't make it overflow
+                long index = block.nextIndex().getAndIncrement();
+
+                if (index < block.size()) {
+                    return block.get(index);
+                }
+            }
+
+            blockFetchLock.lock();
+
+            try {
+                // another thread may have fetched the next block while this one was waiting for the lock
+                if (currentBlock.get() == block) {
+                    if (!sequenceIncrementChecked) {
+                        checkSequenceIncrement(session);
+                        sequenceIncrementChecked = true;
+                    }
+
+                    currentBlock.set(fetchBlock(session));
+                }
+            } finally {
+                blockFetchLock.unlock();
+            }
+        }
+    }
+
+    private ValueBlock fetchBlock(SharedSessionContractImplementor session) {
+        // pooled-lo: the value fetched is the first one of the block, the sequence is incremented by the block size
+        if (allocationSize > 1) {
+            long firstValue = fetchSequenceValues(session, sequenceGetNextValueSql, 1)[0];
+            return new ValueBlock(firstValue, null, allocationSize, new AtomicLong());
+        }
+
+        long[] values = fetchSequenceValues(session, sequenceGetNextValuesSql, fetchSize);
+        return new ValueBlock(0, values, values.length, new AtomicLong());
+    }
+
+    /**
+     * Checks that the sequence is incremented by {@link #allocationSize}: with a smaller increment, blocks fetched by
+     * different nodes would overlap, and IDs would be duplicated. Logs a warning if the sequence is not found (e.g. if
+     * the DB user can't see it).
+     *
+     * @param session Hibernate session
+     * @throws IllegalStateException sequence increment differs from allocation size
+     */
+    private void checkSequenceIncrement(SharedSessionContractImplementor session) {
+        if (sequenceGetIncrementSql == null) {
+            return;
+        }
+
+        Long increment = executeQuery(session, sequenceGetIncrementSql,
+                statement -> {
+                    statement.setString(1, sequenceName);
+                    statement.setString(2, sequenceSchema);
+                },
+                resultSet -> resultSet.next()
+                        ? resultSet.getLong(1)
+                        : null);
+
+        if (increment == null) {
+            log.warn("Sequence '{}' not found in schema '{}', can't check if it's incremented by allocation size {}",
+                    sequenceName, sequenceSchema, allocationSize);
+        } else if (increment != allocationSize) {
+            throw new IllegalStateException("Sequence '" + sequenceName + "' is incremented by " + increment
+                    + ", but allocation size is " + allocationSize + " - they must be equal");
+        }
+    }
+
+    /**
+     * Fetches sequence values.
+     *
+     * @param session Hibernate session
+     * @param sql     SQL statement which returns sequence values, one per row; if {@code count} is greater than 1, its
+     *                only parameter is {@code count}
+     * @param count   number of values to fetch
+     * @return sequence values, in the order returned by the DB
+     */
+    private static long[] fetchSequenceValues(SharedSessionContractImplementor session, String sql, int count) {
+        long[] values = new long[count];
+
+        int valueCount = executeQuery(session, sql,
+                statement -> {
+                    if (count > 1) {
+                        statement.setInt(1, count);
+                    }
+                },
+                resultSet -> {
+                    int rowCount = 0;
+
+                    while ((rowCount < count) && resultSet.next()) {
+                        values[rowCount++] = resultSet.getLong(1);
+                    }
+
+                    return rowCount;
+                });
+
+        if (valueCount != count) {
+            throw new IllegalStateException("Expected " + count + " sequence values, got " + valueCount);
+        }
+
+        return values;
+    }
+
+    /**
+     * Executes the given SQL query via the session's {@link JdbcCoordinator} (the same way Hibernate's own sequence
+     * generators do), so that it's logged and its resources are tracked by Hibernate.
+     *
+     * @param session Hibernate session
+     * @param sql     SQL query
+     * @param binder  binds statement parameters
+     * @param reader  reads the result set
+     * @param <R>     result type
+     * @return what the reader has returned
+     */
+    private static <R> R executeQuery(SharedSessionContractImplementor session, String sql, StatementBinder binder,
+            ResultSetReader<R> reader) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+
         try {
-            existingId = getter.invoke(owner);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new IllegalStateException("Failed to call entity ID getter " + getter.getName());
+            PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+
+            try {
+                binder.bind(statement);
+                ResultSet resultSet = jdbcCoordinator.getResultSetReturn().extract(statement, sql);
+
+                try {
+                    return reader.read(resultSet);
+                } finally {
+                    jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(resultSet, statement);
+                }
+            } finally {
+                jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+                jdbcCoordinator.afterStatementExecution();
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "Failed to query sequence", sql);
         }
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
 
-        if (existingId != null) {
-            return existingId;
+        void bind(PreparedStatement statement) throws SQLException;
+
+    }
+
+    @FunctionalInterface
+    private interface ResultSetReader<R> {
+
+        R read(ResultSet resultSet) throws SQLException;
+
+    }
+
+    /**
+     * Block of sequence values: either a range (if {@code values} is {@code null}) or values fetched one by one.
+     *
+     * @param first     first value of the range
+     * @param values    values fetched
+     * @param size      number of values in the block
+     * @param nextIndex index of the next value to hand out, may go beyond {@code size} when the block is exhausted
+     */
+    private record ValueBlock(long first, @Nullable long[] values, int size, AtomicLong nextIndex) {
+
+        long get(long index) {
+            return (values == null)
+                    ? first + index
+                    : values[(int) index];
         }
 
-        long nextValue = session.createQuery(sequenceGetNextValueSql, Long.class).uniqueResult();
-        return new TimeSortableId(nextValue).getId();
     }
 
 }
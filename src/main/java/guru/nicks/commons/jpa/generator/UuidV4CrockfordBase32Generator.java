@@ -1,5 +1,7 @@
 package guru.nicks.commons.jpa.generator;
 
+import guru.nicks.commons.jpa.domain.CrockfordBase32UuidType;
+
 import org.hibernate.annotations.IdGeneratorType;
 
 import java.lang.annotation.Documented;
@@ -15,10 +17,13 @@ import static java.lang.annotation.ElementType.METHOD;
  * time-sortable which is an advantage for exposing such UUIDs to the public safely. For purely internal data, consider
  * using {@link UuidV7CrockfordBase32Generator} because it has a better DB index locality.
  * <p>
- * The UUID is encoded with Crockford Base32, which yields 26 characters (decimal digits and lowercase letters). Just to
+ * The UUID is encoded with Crockford Base32, which yields 26 characters (decimal digits and uppercase letters). Just to
  * compare, Base64 encoding yields 22 characters (not a big difference), but they are case-sensitive and may cause
  * issues related to DB column case-sensitiveness. The default hex encoding is 36 characters long.
  * <p>
+ * To store the ID as a native UUID (16 bytes) rather than a string, annotate it with
+ * {@code @Type(CrockfordBase32UuidType.class)}, see {@link CrockfordBase32UuidType}.
+ * <p>
  * When called for an object already having a non-null ID, does nothing.
  */
 @IdGeneratorType(UuidV4CrockfordBase32GeneratorImpl.class)
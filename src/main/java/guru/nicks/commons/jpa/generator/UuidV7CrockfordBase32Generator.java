@@ -1,5 +1,7 @@
 package guru.nicks.commons.jpa.generator;
 
+import guru.nicks.commons.jpa.domain.CrockfordBase32UuidType;
+
 import org.hibernate.annotations.IdGeneratorType;
 
 import java.lang.annotation.Documented;
@@ -16,10 +18,13 @@ import static java.lang.annotation.ElementType.METHOD;
  * <p>
  * WARNING: exposing the time of record creation may be a potential security or business risk.
  * <p>
- * The UUID is encoded with Crockford Base32, which yields 26 characters (decimal digits and lowercase letters). Just to
+ * The UUID is encoded with Crockford Base32, which yields 26 characters (decimal digits and uppercase letters). Just to
  * compare, Base64 encoding yields 22 characters (not a big difference), but they are case-sensitive and may cause
  * issues related to DB column case-sensitiveness. The default hex encoding is 36 characters long.
  * <p>
+ * To store the ID as a native UUID (16 bytes) rather than a string, annotate it with
+ * {@code @Type(CrockfordBase32UuidType.class)}, see {@link CrockfordBase32UuidType}.
+ * <p>
  * When called for an object already having a non-null ID, does nothing.
  */
 @IdGeneratorType(UuidV7CrockfordBase32GeneratorImpl.class)
@@ -27,4 +32,14 @@ import static java.lang.annotation.ElementType.METHOD;
 @Target({FIELD, METHOD})
 @Documented
 public @interface UuidV7CrockfordBase32Generator {
+
+    /**
+     * If {@code true}, the incrementing counter is kept per thread (see {@link PerThreadUuidV7}) rather than shared by
+     * all threads, so generation doesn't become a contention point when many threads (including virtual ones) insert
+     * at once. UUIDs are then sortable within the same milli only if they're created by the same thread.
+     *
+     * @return whether the counter is per-thread
+     */
+    boolean perThread() default false;
+
 }
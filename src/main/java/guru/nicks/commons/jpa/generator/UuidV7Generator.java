@@ -21,4 +21,14 @@ import static java.lang.annotation.ElementType.METHOD;
 @Target({FIELD, METHOD})
 @Documented
 public @interface UuidV7Generator {
+
+    /**
+     * If {@code true}, the incrementing counter is kept per thread (see {@link PerThreadUuidV7}) rather than shared by
+     * all threads, so generation doesn't become a contention point when many threads (including virtual ones) insert
+     * at once. UUIDs are then sortable within the same milli only if they're created by the same thread.
+     *
+     * @return whether the counter is per-thread
+     */
+    boolean perThread() default false;
+
 }
@@ -0,0 +1,53 @@
+package guru.nicks.commons.jpa.impl;
+
+import guru.nicks.commons.jpa.repository.TotalCountStrategy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
+import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
+
+/**
+ * Counts once per entity class, filter, and full-text search text, then reuses the total until it expires. Paging
+ * through the same search results therefore runs {@code SELECT COUNT(*)} once instead of once per page.
+ *
+ * @see TotalCountStrategy#cached(Duration, long)
+ */
+public class CachedTotalCountStrategy implements TotalCountStrategy {
+
+    private final Cache<CacheKey, Long> cache;
+
+    /**
+     * Constructor.
+     *
+     * @param timeToLive how long each total is reused for
+     * @param maxEntries maximum number of cached totals
+     */
+    public CachedTotalCountStrategy(Duration timeToLive, long maxEntries) {
+        checkNotNull(timeToLive, "timeToLive");
+        check(timeToLive, "timeToLive").constraint(Duration::isPositive, "must be positive");
+        check(maxEntries, "maxEntries").constraint(value -> value > 0, "must be positive");
+
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    @Override
+    public long count(Request request) {
+        var key = new CacheKey(request.entityClass(), request.filter(), request.fullTextSearch());
+        return cache.get(key, k -> request.exactCounter().getAsLong());
+    }
+
+    private record CacheKey(
+            Class<?> entityClass,
+            @Nullable Object filter,
+            @Nullable String fullTextSearch) {
+    }
+
+}
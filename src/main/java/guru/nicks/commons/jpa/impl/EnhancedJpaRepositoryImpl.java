@@ -6,10 +6,19 @@ import guru.nicks.commons.jpa.domain.JpaConstants;
 import guru.nicks.commons.jpa.repository.EnhancedJpaRepository;
 import guru.nicks.commons.utils.ReflectionUtils;
 
+import jakarta.annotation.Nullable;
 import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.event.spi.CallbackRegistry;
+import org.hibernate.metamodel.mapping.EntityIdentifierMapping;
+import org.hibernate.type.BasicType;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
@@ -19,17 +28,27 @@ import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
 import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
 
 /**
@@ -49,6 +68,12 @@ public class EnhancedJpaRepositoryImpl<T extends Persistable<ID>, ID extends Ser
         extends QuerydslJpaRepository<T, ID>
         implements EnhancedJpaRepository<T, ID, E> {
 
+    /**
+     * Name of the array parameter in {@link #getIdArrayLookupJpql()}.
+     */
+    private static final String ID_ARRAY_PARAMETER_NAME = "ids";
+
+    private final JpaEntityInformation<T, ID> entityInformation;
     private final EntityManager entityManager;
     private final ApplicationContext applicationContext;
     private final JpaInference jpaInference;
@@ -59,6 +84,22 @@ public class EnhancedJpaRepositoryImpl<T extends Persistable<ID>, ID extends Ser
 
     private final Supplier<E> exceptionSupplier;
 
+    /**
+     * Built lazily by {@link #getIdArrayLookupJpql()}.
+     */
+    private volatile String idArrayLookupJpql;
+
+    /**
+     * Resolved lazily by {@link #isIdArrayBindable()}.
+     */
+    private volatile Boolean idArrayBindable;
+
+    /**
+     * Resolved lazily by {@link #getOriginalRepositoryProxy()} - the repository proxy is a singleton, so there's no
+     * need to look it up in {@link ApplicationContext} on each call.
+     */
+    private volatile EnhancedJpaRepository<T, ID, E> originalRepositoryProxy;
+
     /**
      * Creates a new {@link EnhancedJpaRepositoryImpl} for the given {@link JpaEntityInformation} and
      * {@link EntityManager}.
@@ -82,6 +123,7 @@ public class EnhancedJpaRepositoryImpl<T extends Persistable<ID>, ID extends Ser
                     + EnhancedJpaRepository.class.getName());
         }
 
+        this.entityInformation = entityInformation;
         this.entityManager = entityManager;
         this.jpaInference = checkNotNull(jpaInference, "jpaInference");
         this.applicationContext = checkNotNull(applicationContext, "applicationContext");
@@ -159,28 +201,91 @@ public class EnhancedJpaRepositoryImpl<T extends Persistable<ID>, ID extends Ser
             return new ArrayList<>();
         }
 
-        // build index map with initial capacity to avoid resizing
-        Map<ID, T> foundEntities = findAllById(ids).stream()
-                .collect(Collectors.toMap(Persistable::getId, entity -> entity,
-                        // merge duplicate keys
-                        (existing, replacement) -> existing,
-                        // not 'new HashMap<>(ids.size())' - that would cause resizing because to the load factor
-                        () -> HashMap.newHashMap(ids.size())
-                ));
+        List<ID> idList = toRandomAccessList(ids);
+        // each slot corresponds to an input ID; chunks fill their own ranges, so no full-size map is needed
+        Object[] slots = new Object[idList.size()];
 
-        // pre-allocate result list with exact size needed
-        List<T> result = new ArrayList<>(ids.size());
+        // a single array parameter has neither size limits nor multiple SQL statement shapes - no need to chunk
+        if (isIdArrayLookupEnabled()) {
+            fillSlots(slots, idList, 0, idList.size(), findAllByIdArray(idList));
+            return collectFilledSlots(slots);
+        }
 
-        for (ID id : ids) {
-            T entity = foundEntities.get(id);
+        for (int from = 0; from < idList.size(); from += JpaConstants.IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + JpaConstants.IN_CLAUSE_CHUNK_SIZE, idList.size());
+            List<T> found = findAllById(padToPowerOfTwo(idList.subList(from, to)));
+            fillSlots(slots, idList, from, to, found);
+        }
 
-            // entity with the given ID was found
-            if (entity != null) {
-                result.add(entity);
+        return collectFilledSlots(slots);
+    }
+
+    /**
+     * If {@link JpaInference#isIdArrayLookupEnabled()}, binds all the IDs as a single array parameter (see
+     * {@link EnhancedSqlDialect#getIdArrayLookupTemplate()}), which yields exactly one SQL statement per entity
+     * regardless of the number of IDs. Otherwise, delegates to the default implementation.
+     */
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        if (!isIdArrayLookupEnabled()) {
+            return super.findAllById(ids);
+        }
+
+        List<ID> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+
+        return idList.isEmpty()
+                ? new ArrayList<>()
+                : findAllByIdArray(idList);
+    }
+
+    @Override
+    public List<T> findAllByIdPreserveOrder(Collection<ID> ids, Executor executor) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return new ArrayList<>();
+        }
+
+        List<ID> idList = toRandomAccessList(ids);
+        Object[] slots = new Object[idList.size()];
+        // each chunk runs in its own transaction (the proxy applies @Transactional)
+        EnhancedJpaRepository<T, ID, E> proxy = getOriginalRepositoryProxy();
+        List<CompletableFuture<List<T>>> lookups = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        // completed by the first failed chunk, so the caller doesn't wait for the rest
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+
+        for (int from = 0; from < idList.size(); from += JpaConstants.IN_CLAUSE_CHUNK_SIZE) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + JpaConstants.IN_CLAUSE_CHUNK_SIZE, idList.size());
+            List<ID> chunk = padToPowerOfTwo(idList.subList(chunkFrom, chunkTo));
+
+            CompletableFuture<List<T>> lookup = CompletableFuture.supplyAsync(() -> proxy.findAllById(chunk), executor);
+            lookups.add(lookup);
+            futures.add(lookup
+                    // ranges are disjoint, and join() below makes the writes visible to this thread
+                    .thenAccept(found -> fillSlots(slots, idList, chunkFrom, chunkTo, found))
+                    .whenComplete((ignored, e) -> {
+                        if (e != null) {
+                            firstFailure.completeExceptionally(e);
+                        }
+                    }));
+        }
+
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)), firstFailure)
+                    .join();
+        } catch (CompletionException e) {
+            // chunks still queued in the executor are skipped (running ones are not interrupted by CompletableFuture)
+            lookups.forEach(lookup -> lookup.cancel(true));
+
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+
+            throw e;
         }
 
-        return result;
+        return collectFilledSlots(slots);
     }
 
     @Transactional
@@ -197,25 +302,68 @@ public class EnhancedJpaRepositoryImpl<T extends Persistable<ID>, ID extends Ser
         }
 
         List<T> savedEntities = new ArrayList<>(entities.size());
-        int i = 0;
+        saveAllAndFlushInBatches(entities.iterator(), batchSize, savedEntities::addAll);
+        return savedEntities;
+    }
+
+    @Transactional
+    @Override
+    public long saveAllAndFlushInBatches(Iterator<T> entities, int batchSize, Consumer<List<T>> batchConsumer) {
+        check(batchSize, "batchSize").constraint(size -> size > 0, "must be positive");
 
-        for (T entity : entities) {
-            savedEntities.add(save(entity));
-            i++;
+        List<T> batch = new ArrayList<>(batchSize);
+        long count = 0;
 
-            if (i % batchSize == 0) {
-                flush();
-                entityManager.clear();
+        while (entities.hasNext()) {
+            batch.add(save(entities.next()));
+            count++;
+
+            if (count % batchSize == 0) {
+                flushAndClear(batch, batchConsumer);
+                batch = new ArrayList<>(batchSize);
             }
         }
 
-        // Flush any remaining entities that didn't complete a full batch
-        if (i % batchSize != 0) {
-            flush();
-            entityManager.clear();
+        // flush any remaining entities that didn't complete a full batch
+        if (!batch.isEmpty()) {
+            flushAndClear(batch, batchConsumer);
         }
 
-        return savedEntities;
+        return count;
+    }
+
+    @Transactional
+    @Override
+    public List<T> insertAllInBatches(Collection<T> entities) {
+        return insertAllInBatches(entities, JpaConstants.INTERNAL_PAGE_SIZE);
+    }
+
+    @Transactional
+    @Override
+    public List<T> insertAllInBatches(Collection<T> entities, int batchSize) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return new ArrayList<>();
+        }
+
+        List<T> insertedEntities = new ArrayList<>(entities.size());
+        insertInBatches(entities.iterator(), batchSize, insertedEntities::addAll);
+        return insertedEntities;
+    }
+
+    @Transactional
+    @Override
+    public long insertAllInBatchesAndCount(Collection<T> entities, int batchSize) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return 0;
+        }
+
+        return insertInBatches(entities.iterator(), batchSize, null);
+    }
+
+    @Transactional
+    @Override
+    public long insertAllInBatches(Iterator<T> entities, int batchSize, Consumer<List<T>> batchConsumer) {
+        return insertInBatches(entities, batchSize, batchConsumer);
     }
 
     @Override
@@ -237,11 +385,175 @@ public class EnhancedJpaRepositoryImpl<T extends Persistable<ID>, ID extends Ser
     /**
      * Returns the original repository proxy if it's a subclass of {@link EnhancedJpaRepository}. The user code is:
      * {@code public interface MyRepository extends EnhancedJpaRepository<MyEntity, UUID, MyException>}.
+     * <p>
+     * The proxy can't be injected in the constructor (it's being created at that moment), therefore it's looked up on
+     * the first call and memoized. Failed lookups are not memoized, so the next call retries.
      *
      * @return referring to the above example, it's {@code applicationContext.getBean(MyRepository.class)}
-     * @throws IllegalStateException if the original repository interface is not set
+     * @throws IllegalStateException if the original repository interface is not set or the bean can't be retrieved
      */
     protected EnhancedJpaRepository<T, ID, E> getOriginalRepositoryProxy() {
+        EnhancedJpaRepository<T, ID, E> proxy = originalRepositoryProxy;
+
+        if (proxy == null) {
+            synchronized (this) {
+                proxy = originalRepositoryProxy;
+
+                if (proxy == null) {
+                    proxy = retrieveOriginalRepositoryProxy();
+                    originalRepositoryProxy = proxy;
+                }
+            }
+        }
+
+        return proxy;
+    }
+
+    protected EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    protected JpaInference getJpaInference() {
+        return jpaInference;
+    }
+
+    protected JpaEntityInformation<T, ID> getEntityInformation() {
+        return entityInformation;
+    }
+
+    /**
+     * Finds entities by IDs bound as a single array parameter. Must be called only if
+     * {@link #isIdArrayLookupEnabled()}. The query is HQL, so entity restrictions, filters, and inheritance are applied
+     * as usual.
+     *
+     * @param ids IDs, must not be empty
+     * @return entities found, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    protected List<T> findAllByIdArray(Collection<ID> ids) {
+        // a typed array (not Object[]) lets Hibernate bind it as an SQL array of the ID column type
+        ID[] idArray = ids.toArray((ID[]) Array.newInstance(entityInformation.getIdType(), ids.size()));
+
+        return entityManager.createQuery(getIdArrayLookupJpql(), getEntityClass())
+                .setParameter(ID_ARRAY_PARAMETER_NAME, idArray)
+                .getResultList();
+    }
+
+    /**
+     * Checks if entities can be looked up by an array of IDs: it's enabled in {@link JpaInference}, and the entity has
+     * a single ID attribute whose Java type is mapped to its column type the default way (see
+     * {@link #isIdArrayBindable()}).
+     *
+     * @return {@code true} if {@link #findAllByIdArray(Collection)} can be called
+     */
+    protected boolean isIdArrayLookupEnabled() {
+        return jpaInference.isIdArrayLookupEnabled()
+                && (entityInformation.getIdAttribute() != null)
+                && isIdArrayBindable();
+    }
+
+    /**
+     * Inserts entities via a {@link StatelessSession} opened on the JDBC connection of the current transaction. JPA
+     * lifecycle callbacks are invoked explicitly because stateless sessions don't do that.
+     * <p>
+     * Hibernate batches statements only if the session has an active transaction of its own, therefore the stateless
+     * session begins and commits one. It's a logical transaction only: the session gets a view of the connection which
+     * ignores commits, rollbacks, and auto-commit changes, so the physical transaction remains the caller's one.
+     *
+     * @param entities      new entities to insert
+     * @param batchSize     JDBC batch size, must be positive
+     * @param batchConsumer if not {@code null}, receives each batch (with IDs assigned) after it has been sent to DB;
+     *                      otherwise no references to the entities inserted are retained
+     * @return number of entities inserted
+     */
+    protected long insertInBatches(Iterator<T> entities, int batchSize, @Nullable Consumer<List<T>> batchConsumer) {
+        check(batchSize, "batchSize").constraint(size -> size > 0, "must be positive");
+
+        // make pending changes visible to the statements below (they're sent via the same connection)
+        entityManager.flush();
+
+        Session session = entityManager.unwrap(Session.class);
+        CallbackRegistry callbackRegistry = session.getSessionFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getEventEngine()
+                .getCallbackRegistry();
+
+        return session.doReturningWork(connection -> {
+            // closing the stateless session doesn't close the connection supplied externally
+            try (StatelessSession statelessSession = session.getSessionFactory()
+                    .withStatelessOptions()
+                    .connection(withoutTransactionControl(connection))
+                    .openStatelessSession()) {
+                statelessSession.setJdbcBatchSize(batchSize);
+                Transaction transaction = statelessSession.beginTransaction();
+
+                try {
+                    long count = insertInBatches(statelessSession, callbackRegistry, entities, batchSize,
+                            batchConsumer);
+                    transaction.commit();
+                    return count;
+                } catch (RuntimeException e) {
+                    // discards the pending JDBC batch; the caller's transaction is rolled back by its owner
+                    if (transaction.isActive()) {
+                        transaction.rollback();
+                    }
+
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private long insertInBatches(StatelessSession statelessSession, CallbackRegistry callbackRegistry,
+            Iterator<T> entities, int batchSize, @Nullable Consumer<List<T>> batchConsumer) {
+        List<T> batch = (batchConsumer == null) ? null : new ArrayList<>(batchSize);
+        long count = 0;
+
+        while (entities.hasNext()) {
+            T entity = entities.next();
+            callbackRegistry.preCreate(entity);
+            statelessSession.insert(entity);
+            callbackRegistry.postCreate(entity);
+            count++;
+
+            if (batch != null) {
+                batch.add(entity);
+            }
+
+            if (count % batchSize == 0) {
+                batch = executeBatch(statelessSession, batch, batchConsumer, batchSize);
+            }
+        }
+
+        // send any remaining entities that didn't complete a full batch
+        executeBatch(statelessSession, batch, batchConsumer, batchSize);
+        log.debug("Inserted {} [{}] entities in batches of {}", count, getEntityClass().getName(), batchSize);
+        return count;
+    }
+
+    /**
+     * Wraps the connection so that transaction control methods ({@code commit}, {@code rollback}, and
+     * {@code setAutoCommit}) do nothing. All the other methods are delegated to the connection.
+     *
+     * @param connection connection of the current transaction
+     * @return connection view
+     */
+    private static Connection withoutTransactionControl(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "commit", "rollback", "setAutoCommit" -> null;
+
+                    default -> {
+                        try {
+                            yield method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    private EnhancedJpaRepository<T, ID, E> retrieveOriginalRepositoryProxy() {
         if (originalRepositoryInterface == null) {
             throw new IllegalStateException("Original repository interface is not set");
         }
@@ -254,8 +566,171 @@ public class EnhancedJpaRepositoryImpl<T extends Persistable<ID>, ID extends Ser
         }
     }
 
-    protected EntityManager getEntityManager() {
-        return entityManager;
+    /**
+     * Builds (once) HQL for {@link #findAllByIdArray(Collection)}.
+     */
+    private String getIdArrayLookupJpql() {
+        String jpql = idArrayLookupJpql;
+
+        // benign race: concurrent callers build the same string
+        if (jpql == null) {
+            String idPredicate = String.format(Locale.US, getSqlDialect().getIdArrayLookupTemplate(),
+                    "e." + entityInformation.getRequiredIdAttribute().getName(), ":" + ID_ARRAY_PARAMETER_NAME);
+
+            jpql = "SELECT e FROM " + entityInformation.getEntityName() + " e WHERE " + idPredicate;
+            idArrayLookupJpql = jpql;
+        }
+
+        return jpql;
+    }
+
+    /**
+     * Checks (once) if an array of IDs is bound with the same SQL type as the ID column: the ID must have neither an
+     * attribute converter nor a custom type (such as {@link guru.nicks.commons.jpa.domain.CrockfordBase32UuidType},
+     * whose Java strings are stored as UUIDs). Otherwise, the array would be bound as an array of the default SQL type
+     * of the ID Java type, which doesn't match the column type, so the usual {@code IN (...)} lookup is used.
+     */
+    private boolean isIdArrayBindable() {
+        Boolean bindable = idArrayBindable;
+
+        // benign race: concurrent callers compute the same value
+        if (bindable == null) {
+            SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class);
+            EntityIdentifierMapping idMapping = sessionFactory.getMappingMetamodel()
+                    .getEntityDescriptor(getEntityClass())
+                    .getIdentifierMapping();
+            BasicType<?> defaultIdType = sessionFactory.getTypeConfiguration()
+                    .getBasicTypeForJavaType(entityInformation.getIdType());
+
+            bindable = (idMapping.getJdbcTypeCount() == 1)
+                    && (idMapping.getSingleJdbcMapping().getValueConverter() == null)
+                    && (defaultIdType != null)
+                    && (defaultIdType.getJdbcType().getDefaultSqlTypeCode()
+                    == idMapping.getSingleJdbcMapping().getJdbcType().getDefaultSqlTypeCode());
+            idArrayBindable = bindable;
+
+            if (!bindable) {
+                log.info("ID array lookup is not possible for [{}]: IDs are not mapped by their default type",
+                        getEntityClass().getName());
+            }
+        }
+
+        return bindable;
+    }
+
+    /**
+     * Returns the argument itself if it's a {@link RandomAccess} list, otherwise copies it to such a list.
+     */
+    private List<ID> toRandomAccessList(Collection<ID> ids) {
+        return ((ids instanceof List<ID> list) && (ids instanceof RandomAccess))
+                ? list
+                : new ArrayList<>(ids);
+    }
+
+    /**
+     * Pads the chunk, by repeating its last ID, to the next power of two. Duplicate IDs in an {@code IN (...)} clause
+     * don't affect the result, but the number of distinct SQL statements becomes logarithmic instead of linear.
+     *
+     * @param chunk IDs, must not be empty
+     * @return the argument itself if its size is already a power of two, otherwise a new padded list
+     */
+    private List<ID> padToPowerOfTwo(List<ID> chunk) {
+        int size = chunk.size();
+        int paddedSize = Integer.highestOneBit(size);
+
+        if (paddedSize == size) {
+            return chunk;
+        }
+
+        paddedSize <<= 1;
+        List<ID> padded = new ArrayList<>(paddedSize);
+        padded.addAll(chunk);
+        ID lastId = chunk.getLast();
+
+        while (padded.size() < paddedSize) {
+            padded.add(lastId);
+        }
+
+        return padded;
+    }
+
+    /**
+     * Puts entities found for {@code ids[from, to)} into the same positions of {@code slots}.
+     */
+    private void fillSlots(Object[] slots, List<ID> ids, int from, int to, List<T> found) {
+        // not 'new HashMap<>(found.size())' - that would cause resizing because of the load factor
+        Map<ID, T> foundEntities = HashMap.newHashMap(found.size());
+
+        for (T entity : found) {
+            // merge duplicate keys
+            foundEntities.putIfAbsent(entity.getId(), entity);
+        }
+
+        for (int i = from; i < to; i++) {
+            slots[i] = foundEntities.get(ids.get(i));
+        }
+    }
+
+    /**
+     * Sorts the entities found in the order of their IDs, skipping IDs not found (like
+     * {@link #findAllByIdPreserveOrder(Collection)} does).
+     *
+     * @param ids   IDs, random-access list
+     * @param found entities found by these IDs, in any order
+     * @return entities in the same order as in {@code ids}, mutable list
+     */
+    protected List<T> sortInOrderOfIds(List<ID> ids, List<T> found) {
+        Object[] slots = new Object[ids.size()];
+        fillSlots(slots, ids, 0, ids.size(), found);
+        return collectFilledSlots(slots);
+    }
+
+    /**
+     * Collects non-null slots (i.e. entities found) preserving their order.
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> collectFilledSlots(Object[] slots) {
+        List<T> result = new ArrayList<>(slots.length);
+
+        for (Object slot : slots) {
+            // entity with the given ID was found
+            if (slot != null) {
+                result.add((T) slot);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Flushes the persistence context, passes the batch to the consumer, and clears the persistence context.
+     */
+    private void flushAndClear(List<T> batch, Consumer<List<T>> batchConsumer) {
+        flush();
+        batchConsumer.accept(batch);
+        entityManager.clear();
+    }
+
+    /**
+     * Sends the pending JDBC batch to DB and passes the entities of that batch to the consumer, if any.
+     *
+     * @return new (empty) batch if {@code batch} is not {@code null}, {@code null} otherwise
+     */
+    @Nullable
+    private List<T> executeBatch(StatelessSession statelessSession, @Nullable List<T> batch,
+            @Nullable Consumer<List<T>> batchConsumer, int batchSize) {
+        ((SharedSessionContractImplementor) statelessSession).getJdbcCoordinator().executeBatch();
+
+        if ((batch == null) || (batchConsumer == null)) {
+            return null;
+        }
+
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+
+        return new ArrayList<>(batchSize);
     }
 
 }
@@ -1,54 +1,91 @@
 package guru.nicks.commons.jpa.impl;
 
 import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.AuditableEntity;
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
 import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.domain.FullTextSearchStrategy;
 import guru.nicks.commons.jpa.repository.EnhancedJpaRepository;
 import guru.nicks.commons.jpa.repository.EnhancedJpaSearchRepository;
+import guru.nicks.commons.jpa.repository.TotalCountStrategy;
 import guru.nicks.commons.utils.ReflectionUtils;
+import guru.nicks.commons.utils.text.EnglishUtils;
 import guru.nicks.commons.utils.text.NgramUtilsConfig;
+import guru.nicks.commons.utils.text.TextUtils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Order;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.ComparablePath;
 import com.querydsl.core.types.dsl.EntityPathBase;
 import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberTemplate;
+import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.core.types.dsl.PathBuilderFactory;
-import com.querydsl.core.types.dsl.StringTemplate;
+import com.querydsl.core.types.dsl.SimplePath;
 import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.annotation.Nullable;
 import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Persistable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.SequencedSet;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
 import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
 
 /**
@@ -71,14 +108,40 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
         implements EnhancedJpaSearchRepository<T, ID, E, F> {
 
     /**
-     * Keeps {@link FullTextSearchAwareEntity#getNgramUtilsConfig()} for {@code T}. The reason to not use atomics is
+     * Keeps {@link FullTextSearchAwareEntity#getNgramUtilsConfig()} and
+     * {@link FullTextSearchAwareEntity#getFullTextSearchStrategy()} for {@code T}. The reason to not use atomics is
      * that they don't have a mechanism to guarantee that the Lambda computing a value is run only once.
      * <p>
-     * WARNING: this approach assumes that the config is the same for all instances of each entity class.
+     * WARNING: this approach assumes that the settings are the same for all instances of each entity class.
      */
-    private static final Cache<Class<? extends Persistable<?>>, NgramUtilsConfig> ngramUtilsConfigCache =
+    private static final Cache<Class<? extends Persistable<?>>, FullTextSearchSettings> fullTextSearchSettingsCache =
             Caffeine.newBuilder().build();
 
+    /**
+     * Longer search texts are not cached in {@link #fullTextSearchConditionCache}: they're unlikely to repeat, and each
+     * of them would evict many short ones (such as autocomplete prefixes).
+     */
+    private static final int FULL_TEXT_SEARCH_CONDITION_CACHE_MAX_TEXT_LENGTH = 256;
+
+    /**
+     * Maximum total weight of {@link #fullTextSearchConditionCache}: number of characters in all search texts and
+     * conditions (each one takes 2 bytes).
+     */
+    private static final long FULL_TEXT_SEARCH_CONDITION_CACHE_MAX_WEIGHT = 4_000_000;
+
+    /**
+     * Keeps full-text search conditions computed by {@link #createFullTextSearchQuery(String)}, so that repeated
+     * searches (such as autocomplete prefixes) don't compute ngrams again. Caffeine doesn't support limiting both size
+     * and weight, therefore the number of entries is limited indirectly: by total weight and by
+     * {@link #FULL_TEXT_SEARCH_CONDITION_CACHE_MAX_TEXT_LENGTH}.
+     */
+    private static final Cache<FullTextSearchConditionKey, String> fullTextSearchConditionCache = Caffeine.newBuilder()
+            .maximumWeight(FULL_TEXT_SEARCH_CONDITION_CACHE_MAX_WEIGHT)
+            .weigher((FullTextSearchConditionKey key, String condition) ->
+                    key.normalizedFullTextSearch().length() + condition.length())
+            .recordStats()
+            .build();
+
     private final ObjectMapper objectMapper;
 
     /**
@@ -147,31 +210,205 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
     public Page<T> findByFilter(F filter, Supplier<String> fullTextSearchSupplier, Pageable pageable,
             EntityPathBase<T> queryDslEntity, Supplier<EntityGraph<T>> entityGraphSupplier) {
         log.info("Finding [{}]: filter {} / pagination {}", getEntityClass().getName(), filter, pageable);
+        String fts = fullTextSearchSupplier.get();
 
-        var searchQuery = new JPAQuery<T>(getEntityManager())
-                .select(queryDslEntity)
-                .from(queryDslEntity);
+        if (isTwoPhaseRankedSearch(fts, pageable)) {
+            SearchQuery<ID> idSearch = createSearchQuery(filter, () -> fts, pageable, queryDslEntity,
+                    getIdPath(queryDslEntity), () -> null);
+            List<T> content = findAllByIdInOrder(idSearch.query().fetch(), queryDslEntity, entityGraphSupplier);
+            return fetchPage(filter, idSearch, queryDslEntity, content);
+        }
+
+        SearchQuery<T> search = createSearchQuery(filter, () -> fts, pageable, queryDslEntity,
+                queryDslEntity, entityGraphSupplier);
+        return fetchPage(filter, search, queryDslEntity, search.query().fetch());
+    }
+
+    @Override
+    public <P> Page<P> findByFilter(F filter, Supplier<String> fullTextSearchSupplier, Pageable pageable,
+            EntityPathBase<T> queryDslEntity, Expression<P> projection) {
+        log.info("Finding [{}] projections: filter {} / pagination {}", getEntityClass().getName(), filter, pageable);
+        SearchQuery<P> search = createSearchQuery(filter, fullTextSearchSupplier, pageable, queryDslEntity,
+                projection, () -> null);
+        return fetchPage(filter, search, queryDslEntity, search.query().fetch());
+    }
+
+    @Override
+    public Slice<T> findSliceByFilter(F filter, Supplier<String> fullTextSearchSupplier, Pageable pageable,
+            EntityPathBase<T> queryDslEntity, Supplier<EntityGraph<T>> entityGraphSupplier) {
+        log.info("Finding slice of [{}]: filter {} / pagination {}", getEntityClass().getName(), filter, pageable);
+        String fts = fullTextSearchSupplier.get();
+
+        if (isTwoPhaseRankedSearch(fts, pageable)) {
+            SearchQuery<ID> idSearch = createSearchQuery(filter, () -> fts, pageable, queryDslEntity,
+                    getIdPath(queryDslEntity), () -> null);
+
+            // one extra ID tells if there's a next slice (offset has already been applied)
+            int pageSize = idSearch.pageable().getPageSize();
+            List<ID> ids = idSearch.query()
+                    .limit(pageSize + 1L)
+                    .fetch();
+
+            boolean hasNext = ids.size() > pageSize;
+            List<T> content = findAllByIdInOrder(hasNext ? ids.subList(0, pageSize) : ids, queryDslEntity,
+                    entityGraphSupplier);
+            return new SliceImpl<>(content, idSearch.pageable(), hasNext);
+        }
+
+        SearchQuery<T> search = createSearchQuery(filter, () -> fts, pageable, queryDslEntity,
+                queryDslEntity, entityGraphSupplier);
+
+        if (search.pageable().isUnpaged()) {
+            return new SliceImpl<>(search.query().fetch(), search.pageable(), false);
+        }
+
+        // one extra row tells if there's a next slice (offset has already been applied)
+        int pageSize = search.pageable().getPageSize();
+        List<T> found = search.query()
+                .limit(pageSize + 1L)
+                .fetch();
+
+        boolean hasNext = found.size() > pageSize;
+        List<T> content = hasNext
+                ? found.subList(0, pageSize)
+                : found;
+
+        return new SliceImpl<>(content, search.pageable(), hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<T> streamByFilter(F filter, Supplier<String> fullTextSearchSupplier, Sort sort, int fetchSize,
+            EntityPathBase<T> queryDslEntity, Supplier<EntityGraph<T>> entityGraphSupplier) {
+        check(fetchSize, "fetchSize").constraint(value -> value > 0, "must be positive");
+        log.info("Streaming [{}]: filter {} / sort {}", getEntityClass().getName(), filter, sort);
+
+        SearchQuery<T> search = createSearchQuery(filter, fullTextSearchSupplier, Pageable.unpaged(sort),
+                queryDslEntity, queryDslEntity, entityGraphSupplier);
+
+        @SuppressWarnings("unchecked")
+        org.hibernate.query.Query<T> query = search.query()
+                .createQuery()
+                .unwrap(org.hibernate.query.Query.class);
+
+        // read-only entities have no snapshots for dirty checking, so they take half the memory
+        ScrollableResults<T> results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Session session = getEntityManager().unwrap(Session.class);
+
+        var iterator = new Iterator<T>() {
+            /**
+             * Entities loaded by this stream since they were last detached.
+             */
+            private final List<T> loadedRows = new ArrayList<>();
+
+            private long rowCount;
+            private boolean advanced;
+            private boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    // entities already consumed are not needed in the persistence context anymore; clearing it would
+                    // discard the caller's pending changes, so only the entities loaded by this stream are detached
+                    if ((rowCount > 0) && (rowCount % fetchSize == 0)) {
+                        loadedRows.forEach(session::detach);
+                        loadedRows.clear();
+                    }
+
+                    hasNext = results.next();
+                    advanced = true;
+                }
+
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                advanced = false;
+                rowCount++;
+                T row = results.get();
+
+                // new entities are loaded as read-only (see above), whereas entities which had already been in the
+                // persistence context are returned as they are - possibly with the caller's pending changes
+                if (session.isReadOnly(row)) {
+                    loadedRows.add(row);
+                }
+
+                return row;
+            }
+        };
+
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::close);
+    }
+
+    @Override
+    public Window<T> scrollByFilter(F filter, Supplier<String> fullTextSearchSupplier,
+            Supplier<String> continuationTokenSupplier, int limit, EntityPathBase<T> queryDslEntity,
+            Supplier<EntityGraph<T>> entityGraphSupplier) {
+        check(limit, "limit").constraint(value -> value > 0, "must be positive");
+        log.info("Scrolling [{}]: filter {} / limit {}", getEntityClass().getName(), filter, limit);
 
         BooleanBuilder searchBuilder = convertToSearchBuilder(filter);
-        Pageable oldPageable = pageable;
-        pageable = setupFullTextSearch(fullTextSearchSupplier, pageable, queryDslEntity, searchBuilder, searchQuery);
+        String fts = fullTextSearchSupplier.get();
 
-        // by method contract, this means no FTS
-        if (pageable == oldPageable) {
-            searchQuery.where(searchBuilder);
-            applyPaginationAndSort(searchQuery, pageable, queryDslEntity);
+        if (StringUtils.isNotBlank(fts)) {
+            searchBuilder.and(createFullTextSearchPredicate(createFullTextSearchQuery(fts)));
         }
 
-        // no need to apply the entity graph because, being a set of LEFT JOINs, it doesn't affect the count
-        var countQuery = new JPAQuery<>(getEntityManager())
-                .select(queryDslEntity.count())
+        var keyset = new Keyset(queryDslEntity);
+        Map<String, Object> keys = Optional.ofNullable(continuationTokenSupplier.get())
+                .map(this::parseContinuationToken)
+                .orElse(null);
+        Optional.ofNullable(keyset.createPredicate(keys))
+                .ifPresent(searchBuilder::and);
+
+        // one extra row tells if there's a next window
+        var query = new JPAQuery<T>(getEntityManager())
+                .select(queryDslEntity)
                 .from(queryDslEntity)
-                .where(searchBuilder);
+                .where(searchBuilder)
+                .orderBy(keyset.getOrderSpecifiers())
+                .limit(limit + 1L);
 
         Optional.ofNullable(entityGraphSupplier.get())
-                .ifPresent(graph -> searchQuery.setHint(EntityGraphType.FETCH.getKey(), graph));
-        // this is how Spring Data applies pagination to queries (the query is already limited, see above)
-        return PageableExecutionUtils.getPage(searchQuery.fetch(), pageable, countQuery::fetchOne);
+                .ifPresent(graph -> query.setHint(EntityGraphType.FETCH.getKey(), graph));
+
+        List<T> found = query.fetch();
+        boolean hasNext = found.size() > limit;
+        List<T> content = hasNext
+                ? found.subList(0, limit)
+                : found;
+
+        return Window.from(content, i -> ScrollPosition.forward(getKeysetValues(content.get(i))), hasNext);
+    }
+
+    @Override
+    public String createContinuationToken(Window<T> window) {
+        check(window, "window").constraint(w -> !w.isEmpty(), "must not be empty");
+        Map<String, Object> keys = getKeysetValues(window.getContent().getLast());
+
+        if (keys.containsValue(null)) {
+            throw new IllegalArgumentException("Keyset values of the last entity must not be null: " + keys);
+        }
+
+        // not relying on ObjectMapper settings for Instant serialization
+        keys.computeIfPresent(AuditableEntity.Fields.createdDate, (key, value) -> value.toString());
+
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON error: " + e.getMessage(), e);
+        }
     }
 
     @Override
@@ -189,11 +426,9 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
             throw new IllegalArgumentException("JSON error: " + e.getMessage(), e);
         }
 
-        // WARNING: don't pass '{0}' to booleanTemplate(), rather embed the value, or the query generated will have
-        // invalid positional argument indexes (seems their bug)
-        String sql = String.format(Locale.US, getSqlDialect().getJsonContainsTemplate(),
-                propertyName, fieldValueAsJson);
-        return Expressions.booleanTemplate(sql);
+        // the value is bound as a parameter, so the HQL is the same for all values (and is cached by Hibernate)
+        String hql = String.format(Locale.US, getSqlDialect().getJsonContainsTemplate(), propertyName);
+        return Expressions.booleanTemplate(hql, fieldValueAsJson);
     }
 
     @SuppressWarnings("unchecked")
@@ -207,6 +442,244 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
         return (EnhancedJpaSearchRepository<T, ID, E, F>) super.getOriginalRepositoryProxy();
     }
 
+    /**
+     * Returns hit/miss statistics of the cache of full-text search conditions, which is shared by all repositories.
+     * Each search text is converted to a condition (ngrams are computed) once, and the condition is reused until it's
+     * evicted.
+     *
+     * @return cache statistics
+     */
+    public static CacheStats getFullTextSearchConditionCacheStats() {
+        return fullTextSearchConditionCache.stats();
+    }
+
+    /**
+     * Normalizes full-text search text for {@link TotalCountStrategy.Request#fullTextSearch()} and for caching
+     * full-text search conditions: lowercases it and collapses whitespace, so that trivially different texts share the
+     * same total and the same condition.
+     *
+     * @param fts full-text search text
+     * @return normalized text, {@code null} if the original one is blank
+     */
+    @Nullable
+    private String normalizeFullTextSearch(@Nullable String fts) {
+        return StringUtils.isBlank(fts)
+                ? null
+                : StringUtils.normalizeSpace(fts).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Asks the DB query planner how many rows match the search conditions (see
+     * {@link EnhancedSqlDialect#getRowCountEstimateTemplate()}). Unlike {@code SELECT COUNT(*)}, this doesn't run the
+     * query. The statement explained is the one Hibernate renders for the count query, with the same parameters bound,
+     * but without aggregation - so that the top plan node is the one returning the matching rows.
+     * <p>
+     * The statement is run in a child session sharing the JDBC connection, whose statement inspector wraps the SQL in
+     * the template. The plan is read as a string: Postgres returns it as {@code json} in place of the selected value,
+     * which Hibernate doesn't map to any Java type by default.
+     *
+     * @param queryDslEntity retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param predicate      search conditions, including full-text search
+     * @return row count estimate, or {@link OptionalLong#empty()} if it's not available
+     */
+    private OptionalLong estimateRowCount(EntityPathBase<T> queryDslEntity, Predicate predicate) {
+        String template = getSqlDialect().getRowCountEstimateTemplate();
+        if (template == null) {
+            return OptionalLong.empty();
+        }
+
+        try (Session explainSession = getEntityManager()
+                .unwrap(Session.class)
+                .sessionWithOptions()
+                .connection()
+                .statementInspector(sql -> String.format(Locale.US, template, sql))
+                .openSession()) {
+            // fetch() and not fetchFirst(): a row limit would become the top plan node
+            List<String> plans = new JPAQuery<>(explainSession)
+                    .select(Expressions.stringTemplate("''"))
+                    .from(queryDslEntity)
+                    .where(predicate)
+                    .fetch();
+
+            if (plans.isEmpty() || (plans.get(0) == null)) {
+                return OptionalLong.empty();
+            }
+
+            JsonNode planRows = objectMapper.readTree(plans.get(0))
+                    .path(0)
+                    .path("Plan")
+                    .path("Plan Rows");
+
+            return planRows.isNumber()
+                    ? OptionalLong.of(planRows.asLong())
+                    : OptionalLong.empty();
+        } catch (PersistenceException | JsonProcessingException e) {
+            log.warn("Failed to estimate row count for [{}]: {}", getEntityClass().getName(), e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Collects keyset values of the given entity: {@link AuditableEntity#getCreatedDate()} (if the entity is
+     * auditable) and ID.
+     *
+     * @param entity entity
+     * @return mutable map (keys are property names, in sort order)
+     */
+    private Map<String, Object> getKeysetValues(T entity) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+
+        if (entity instanceof AuditableEntity<?> auditableEntity) {
+            keys.put(AuditableEntity.Fields.createdDate, auditableEntity.getCreatedDate());
+        }
+
+        keys.put(getEntityInformation().getRequiredIdAttribute().getName(), entity.getId());
+        return keys;
+    }
+
+    /**
+     * Parses token created by {@link #createContinuationToken(Window)}.
+     *
+     * @param token continuation token
+     * @return keyset values (keys are property names)
+     * @throws IllegalArgumentException the token is invalid
+     */
+    private Map<String, Object> parseContinuationToken(String token) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        String idName = getEntityInformation().getRequiredIdAttribute().getName();
+
+        try {
+            JsonNode json = objectMapper.readTree(Base64.getUrlDecoder().decode(token));
+
+            if (AuditableEntity.class.isAssignableFrom(getEntityClass())) {
+                keys.put(AuditableEntity.Fields.createdDate,
+                        Instant.parse(json.path(AuditableEntity.Fields.createdDate).asText()));
+            }
+
+            keys.put(idName, objectMapper.treeToValue(json.path(idName), getEntityInformation().getIdType()));
+        } catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+
+        if (keys.containsValue(null)) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+
+        return keys;
+    }
+
+    /**
+     * Creates a query shared by all the search methods: search conditions, full-text search, pagination, sorting, and
+     * entity graph.
+     *
+     * @param filter                 filter
+     * @param fullTextSearchSupplier supplier for full-text search text
+     * @param pageable               pagination/sorting request
+     * @param queryDslEntity         retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param selection              what to select: {@code queryDslEntity} itself or a projection
+     * @param entityGraphSupplier    entity graph to fetch associated entities, can return {@code null}
+     * @param <V>                    selection type
+     * @return query with its predicate and (possibly altered by FTS) pagination
+     */
+    private <V> SearchQuery<V> createSearchQuery(F filter, Supplier<String> fullTextSearchSupplier, Pageable pageable,
+            EntityPathBase<T> queryDslEntity, Expression<V> selection, Supplier<EntityGraph<T>> entityGraphSupplier) {
+        var searchQuery = new JPAQuery<V>(getEntityManager())
+                .select(selection)
+                .from(queryDslEntity);
+
+        BooleanBuilder searchBuilder = convertToSearchBuilder(filter);
+        String fts = fullTextSearchSupplier.get();
+        Pageable oldPageable = pageable;
+        pageable = setupFullTextSearch(() -> fts, pageable, queryDslEntity, searchBuilder, searchQuery);
+
+        // by method contract, this means no FTS
+        if (pageable == oldPageable) {
+            searchQuery.where(searchBuilder);
+            applyPaginationAndSort(searchQuery, pageable, queryDslEntity);
+        }
+
+        Optional.ofNullable(entityGraphSupplier.get())
+                .ifPresent(graph -> searchQuery.setHint(EntityGraphType.FETCH.getKey(), graph));
+        return new SearchQuery<>(searchQuery, searchBuilder, pageable, fts);
+    }
+
+    /**
+     * Wraps the search results in a page. The total is computed (if needed at all) by
+     * {@link #getTotalCountStrategy()}.
+     *
+     * @param filter         filter
+     * @param search         search query
+     * @param queryDslEntity retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param content        search results fetched by (or by the help of) the search query
+     * @param <V>            result type
+     * @return page of search results
+     */
+    private <V> Page<V> fetchPage(F filter, SearchQuery<?> search, EntityPathBase<T> queryDslEntity,
+            List<V> content) {
+        // no need to apply the entity graph because, being a set of LEFT JOINs, it doesn't affect the count
+        var countQuery = new JPAQuery<>(getEntityManager())
+                .select(queryDslEntity.count())
+                .from(queryDslEntity)
+                .where(search.predicate());
+
+        var countRequest = new TotalCountStrategy.Request(getEntityClass(), filter,
+                normalizeFullTextSearch(search.fullTextSearch()), countQuery::fetchOne,
+                () -> estimateRowCount(queryDslEntity, search.predicate()));
+        TotalCountStrategy totalCountStrategy = getOriginalRepositoryProxy().getTotalCountStrategy();
+
+        // this is how Spring Data applies pagination to queries (the query is already limited, see above)
+        return PageableExecutionUtils.getPage(content, search.pageable(),
+                () -> totalCountStrategy.count(countRequest));
+    }
+
+    /**
+     * Checks if the search should run in two phases, see
+     * {@link EnhancedJpaSearchRepository#isTwoPhaseRankedSearchEnabled()}. The sort criteria check mirrors
+     * {@link #fixSortCriteria(Pageable, EntityPathBase, JPAQuery, String)}.
+     *
+     * @param fts      full-text search text
+     * @param pageable pagination/sorting request
+     * @return {@code true} if the search is paged, sorted by search rank, and two-phase search is enabled
+     */
+    private boolean isTwoPhaseRankedSearch(@Nullable String fts, Pageable pageable) {
+        return pageable.isPaged()
+                && StringUtils.isNotBlank(fts)
+                && (pageable.getSort().isUnsorted()
+                || (pageable.getSort().getOrderFor(FullTextSearchAwareEntity.SEARCH_RANK_PSEUDOFIELD) != null))
+                && getOriginalRepositoryProxy().isTwoPhaseRankedSearchEnabled();
+    }
+
+    private SimplePath<ID> getIdPath(EntityPathBase<T> queryDslEntity) {
+        return new PathBuilder<>(queryDslEntity.getType(), queryDslEntity.getMetadata())
+                .getSimple(getEntityInformation().getRequiredIdAttribute().getName(),
+                        getEntityInformation().getIdType());
+    }
+
+    /**
+     * Second phase of two-phase search: fetches entities by IDs (a page of them, so a single query is enough), with the
+     * entity graph applied.
+     *
+     * @param ids                 IDs
+     * @param queryDslEntity      retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param entityGraphSupplier entity graph to fetch associated entities, can return {@code null}
+     * @return entities in the same order as their IDs, mutable list
+     */
+    private List<T> findAllByIdInOrder(List<ID> ids, EntityPathBase<T> queryDslEntity,
+            Supplier<EntityGraph<T>> entityGraphSupplier) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        var query = new JPAQuery<T>(getEntityManager())
+                .select(queryDslEntity)
+                .from(queryDslEntity)
+                .where(getIdPath(queryDslEntity).in(ids));
+
+        Optional.ofNullable(entityGraphSupplier.get())
+                .ifPresent(graph -> query.setHint(EntityGraphType.FETCH.getKey(), graph));
+        return sortInOrderOfIds(ids, query.fetch());
+    }
+
     /**
      * Adds pagination and sorting, if any, to the query.
      *
@@ -223,9 +696,14 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
      * If search text returned by the given supplier is blank, does nothing and returns. Otherwise:
      * <ul>
      *  <li>instantiates {@link #getEntityClass()} (once) in order to retrieve
-     *      {@link FullTextSearchAwareEntity#getNgramUtilsConfig()}</li>
-     *  <li>adds search text and its ngrams (to match them against ngrams stored in DB) to {@code searchBuilder} as
-     *      'OR'; the more ngrams match, the greater is the search rank</li>
+     *      {@link FullTextSearchAwareEntity#getNgramUtilsConfig()} and
+     *      {@link FullTextSearchAwareEntity#getFullTextSearchStrategy()}</li>
+     *  <li>for {@link FullTextSearchStrategy#NGRAMS}, adds search text and its ngrams (to match them against ngrams
+     *      stored in DB) to {@code searchBuilder} as 'OR'; the more ngrams match, the greater is the search rank</li>
+     *  <li>for {@link FullTextSearchStrategy#NATIVE_PREFIX}, adds search words (to match them against prefixes of
+     *      words stored in DB) to {@code searchBuilder} as a native DB query</li>
+     *  <li>for {@link FullTextSearchStrategy#TRIGRAM}, adds search words (to match them against words stored in DB by
+     *      trigram similarity) to {@code searchBuilder}</li>
      *  <li>if {@code pageable} specifies a field to sort by (but not
      *      {@value FullTextSearchAwareEntity#SEARCH_RANK_PSEUDOFIELD}), adds it to {@code query}</li>
      *  <li>otherwise, sets up sort by {@value FullTextSearchAwareEntity#SEARCH_RANK_PSEUDOFIELD} (desc) - adds it to
@@ -242,13 +720,31 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
      * @throws IllegalArgumentException {@link #getEntityClass()} doesn't extend {@link FullTextSearchAwareEntity}
      */
     private Pageable setupFullTextSearch(Supplier<String> fullTextSearchSupplier, Pageable pageable,
-            EntityPathBase<T> queryDslEntity, BooleanBuilder searchBuilder, JPAQuery<T> query) {
+            EntityPathBase<T> queryDslEntity, BooleanBuilder searchBuilder, JPAQuery<?> query) {
         String fts = fullTextSearchSupplier.get();
         // if no FTS was requested, don't check entity class (see below)
         if (StringUtils.isBlank(fts)) {
             return pageable;
         }
 
+        String q = createFullTextSearchQuery(fts);
+        searchBuilder.and(createFullTextSearchPredicate(q));
+        query.where(searchBuilder);
+
+        return fixSortCriteria(pageable, queryDslEntity, query, q);
+    }
+
+    /**
+     * Converts search text to a lenient (any chunk or word matches) full-text search query. Short texts are converted
+     * once per entity class, then taken from {@link #fullTextSearchConditionCache}.
+     *
+     * @param fts search text, not blank
+     * @return full-text search query, see {@link EnhancedSqlDialect#createLenientFullTextSearchCondition(Collection)}
+     *         and {@link EnhancedSqlDialect#createPrefixFullTextSearchQuery(Collection)}, or search words joined with
+     *         spaces for {@link FullTextSearchStrategy#TRIGRAM}
+     * @throws IllegalArgumentException {@link #getEntityClass()} doesn't extend {@link FullTextSearchAwareEntity}
+     */
+    private String createFullTextSearchQuery(String fts) {
         // validate that entity supports full-text search
         if (!FullTextSearchAwareEntity.class.isAssignableFrom(getEntityClass())) {
             throw new IllegalArgumentException("Entity class [" + getEntityClass().getName()
@@ -256,17 +752,59 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
                     + "] to support full-text search");
         }
 
-        SequencedSet<String> chunks = FullTextSearchAwareEntity.createFullTextSearchChunks(fts, getNgramUtilsConfig());
-        String q = getSqlDialect().createLenientFullTextSearchCondition(chunks);
+        // ngrams are case-insensitive and don't depend on whitespace, so the normalized text yields the same condition
+        String normalizedFts = normalizeFullTextSearch(fts);
 
-        // WARNING: don't pass '{0}' to booleanTemplate(), rather embed the value, or the query generated will have
-        // invalid positional argument indexes (seems their bug)
-        String sql = String.format(Locale.US, getSqlDialect().getFullTextSearchTemplate(),
-                FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY, q);
-        searchBuilder.and(Expressions.booleanTemplate(sql));
-        query.where(searchBuilder);
+        if (normalizedFts.length() > FULL_TEXT_SEARCH_CONDITION_CACHE_MAX_TEXT_LENGTH) {
+            return createFullTextSearchCondition(normalizedFts);
+        }
 
-        return fixSortCriteria(pageable, queryDslEntity, query, q);
+        return fullTextSearchConditionCache.get(new FullTextSearchConditionKey(getEntityClass(), normalizedFts),
+                key -> createFullTextSearchCondition(key.normalizedFullTextSearch()));
+    }
+
+    private String createFullTextSearchCondition(String fts) {
+        FullTextSearchSettings settings = getFullTextSearchSettings();
+        NgramUtilsConfig config = settings.ngramUtilsConfig();
+
+        return switch (settings.strategy()) {
+            case NGRAMS -> getSqlDialect().createLenientFullTextSearchCondition(
+                    FullTextSearchAwareEntity.createFullTextSearchChunks(fts, config));
+
+            case NATIVE_PREFIX -> getSqlDialect().createPrefixFullTextSearchQuery(collectSearchWords(fts, config));
+
+            // words are passed as a parameter, so they don't need escaping
+            case TRIGRAM -> String.join(" ", collectSearchWords(fts, config));
+        };
+    }
+
+    /**
+     * Collects unique words the same way {@link FullTextSearchAwareEntity#buildFullTextSearchData} does for strategies
+     * other than {@link FullTextSearchStrategy#NGRAMS}.
+     *
+     * @param fts    search text
+     * @param config ngram configuration
+     * @return search words
+     */
+    private List<String> collectSearchWords(String fts, NgramUtilsConfig config) {
+        return TextUtils.collectUniqueWords(fts, config.isReduceAccents())
+                .stream()
+                // either English morph analysis is off or the word is not an English stop word
+                .filter(word -> !config.tryEnglishMorphAnalysis() || !EnglishUtils.stopWord(word))
+                .toList();
+    }
+
+    private Predicate createFullTextSearchPredicate(String q) {
+        String template = switch (getFullTextSearchSettings().strategy()) {
+            case NGRAMS -> getSqlDialect().getFullTextSearchTemplate();
+            case NATIVE_PREFIX -> getSqlDialect().getPrefixFullTextSearchTemplate();
+            case TRIGRAM -> getSqlDialect().getTrigramFullTextSearchTemplate();
+        };
+
+        // the query is bound as a parameter, so the HQL is the same for all queries (and is cached by Hibernate)
+        String hql = String.format(Locale.US, checkDialectSupport(template),
+                FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY);
+        return Expressions.booleanTemplate(hql, q);
     }
 
     /**
@@ -281,7 +819,7 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
      * @return A new {@link Pageable} object reflecting the applied sort criteria. This will be a clone of the original
      *         if its sort was used, or a new instance with sorting by search rank.
      */
-    private Pageable fixSortCriteria(Pageable pageable, EntityPathBase<T> queryDslEntity, JPAQuery<T> query, String q) {
+    private Pageable fixSortCriteria(Pageable pageable, EntityPathBase<T> queryDslEntity, JPAQuery<?> query, String q) {
         // caller intends to sort, but not by search rank - do it
         if (pageable.getSort().isSorted()
                 && (pageable.getSort().getOrderFor(FullTextSearchAwareEntity.SEARCH_RANK_PSEUDOFIELD) == null)) {
@@ -293,16 +831,25 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
                     : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
         }
 
-        String sql = String.format(Locale.US, getSqlDialect().getFullTextSearchRankTemplate(),
-                FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY, q);
-        // WARNING: don't pass '{0}' to stringTemplate(), rather embed the value, or the query generated will have
-        // invalid positional argument indexes (seems their bug)
-        StringTemplate sortBySearchRank = Expressions.stringTemplate(sql);
+        String template = switch (getFullTextSearchSettings().strategy()) {
+            case NGRAMS -> getSqlDialect().getFullTextSearchRankTemplate();
+            case NATIVE_PREFIX -> getSqlDialect().getPrefixFullTextSearchRankTemplate();
+            case TRIGRAM -> getSqlDialect().getTrigramFullTextSearchRankTemplate();
+        };
+
+        // the query is bound as a parameter, so the HQL is the same for all queries (and is cached by Hibernate)
+        String hql = String.format(Locale.US, checkDialectSupport(template),
+                FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY);
+        NumberTemplate<Double> sortBySearchRank = Expressions.numberTemplate(Double.class, hql, q);
 
         // sort by search rank (always desc) which is an SQL function
-        query.offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .orderBy(new OrderSpecifier<>(Order.DESC, sortBySearchRank));
+        query.orderBy(new OrderSpecifier<>(Order.DESC, sortBySearchRank));
+
+        // unpaged requests throw exceptions on attempts to get offset/limit
+        if (pageable.isPaged()) {
+            query.offset(pageable.getOffset())
+                    .limit(pageable.getPageSize());
+        }
 
         // for caller, search rank looks like a special property
         Sort newSort = Sort.by(
@@ -313,17 +860,137 @@ public class EnhancedJpaSearchRepositoryImpl<T extends Persistable<ID>,
     }
 
     /**
-     * Retrieves ngram configuration for {@link #getEntityClass()} once - using a cache.
+     * Retrieves ngram configuration and full-text search strategy for {@link #getEntityClass()} once - using a cache.
      * <p>
-     * WARNING: this approach assumes that the ngram configuration is the same for all instances of each class.
+     * WARNING: this approach assumes that the settings are the same for all instances of each class.
      *
-     * @return the ngram configuration for the entity class
+     * @return full-text search settings for the entity class
      */
-    private NgramUtilsConfig getNgramUtilsConfig() {
-        return ngramUtilsConfigCache.get(getEntityClass(), clazz -> {
+    private FullTextSearchSettings getFullTextSearchSettings() {
+        return fullTextSearchSettingsCache.get(getEntityClass(), clazz -> {
             var entity = (FullTextSearchAwareEntity<?>) ReflectionUtils.instantiateEvenWithoutDefaultConstructor(clazz);
-            return checkNotNull(entity.getNgramUtilsConfig(), clazz.getName() + ".ngramUtilsConfig");
+            return new FullTextSearchSettings(
+                    checkNotNull(entity.getNgramUtilsConfig(), clazz.getName() + ".ngramUtilsConfig"),
+                    checkNotNull(entity.getFullTextSearchStrategy(), clazz.getName() + ".fullTextSearchStrategy"));
         });
     }
 
+    /**
+     * Checks that the SQL dialect supports the full-text search strategy of {@link #getEntityClass()}.
+     *
+     * @param template template returned by the dialect for the strategy
+     * @return the template
+     * @throws UnsupportedOperationException template is {@code null}
+     */
+    private String checkDialectSupport(@Nullable String template) {
+        if (template == null) {
+            throw new UnsupportedOperationException("SQL dialect " + getSqlDialect()
+                    + " doesn't support full-text search strategy " + getFullTextSearchSettings().strategy());
+        }
+
+        return template;
+    }
+
+    /**
+     * Full-text search settings of an entity class.
+     *
+     * @param ngramUtilsConfig see {@link FullTextSearchAwareEntity#getNgramUtilsConfig()}
+     * @param strategy         see {@link FullTextSearchAwareEntity#getFullTextSearchStrategy()}
+     */
+    private record FullTextSearchSettings(
+            NgramUtilsConfig ngramUtilsConfig,
+            FullTextSearchStrategy strategy) {
+    }
+
+    /**
+     * Key of {@link #fullTextSearchConditionCache}. Conditions depend on entity classes because so do ngram
+     * configuration and full-text search strategy.
+     *
+     * @param entityClass              entity class
+     * @param normalizedFullTextSearch see {@link #normalizeFullTextSearch(String)}
+     */
+    private record FullTextSearchConditionKey(
+            Class<?> entityClass,
+            String normalizedFullTextSearch) {
+    }
+
+    /**
+     * Search query and its parts needed to build additional queries (such as {@code COUNT}) or results.
+     *
+     * @param query          query with pagination and sorting applied
+     * @param predicate      search conditions
+     * @param pageable       pagination/sorting request (altered if full-text search is in effect)
+     * @param fullTextSearch full-text search text, as returned by the supplier
+     * @param <V>            entity type
+     */
+    private record SearchQuery<V>(
+            JPAQuery<V> query,
+            BooleanBuilder predicate,
+            Pageable pageable,
+            @Nullable String fullTextSearch) {
+    }
+
+    /**
+     * Keyset pagination properties: {@link AuditableEntity#getCreatedDate()} (if the entity is auditable) and ID, both
+     * sorted in descending order (newest first).
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"}) // ID type is only known to be Comparable at runtime
+    private class Keyset {
+
+        @Nullable
+        private final ComparablePath<Instant> createdDatePath;
+        private final ComparablePath<Comparable> idPath;
+        private final String idName;
+
+        Keyset(EntityPathBase<T> queryDslEntity) {
+            if (!Comparable.class.isAssignableFrom(getEntityInformation().getIdType())) {
+                throw new IllegalStateException("ID type of [" + getEntityClass().getName()
+                        + "] must be Comparable for keyset pagination");
+            }
+
+            var entityPath = new PathBuilder<>(queryDslEntity.getType(), queryDslEntity.getMetadata());
+            idName = getEntityInformation().getRequiredIdAttribute().getName();
+            idPath = entityPath.getComparable(idName, Comparable.class);
+
+            createdDatePath = AuditableEntity.class.isAssignableFrom(getEntityClass())
+                    ? entityPath.getComparable(AuditableEntity.Fields.createdDate, Instant.class)
+                    : null;
+        }
+
+        /**
+         * Creates a predicate which matches entities located after the given keyset values (in sort order). Entities
+         * without {@link AuditableEntity#getCreatedDate()} are never matched because they have no position in the sort
+         * order.
+         *
+         * @param keys keyset values, as parsed by {@link #parseContinuationToken(String)}; {@code null} for the first
+         *             window
+         * @return predicate, {@code null} if there are no conditions
+         */
+        @Nullable
+        Predicate createPredicate(@Nullable Map<String, Object> keys) {
+            if (createdDatePath == null) {
+                return (keys == null)
+                        ? null
+                        : idPath.lt((Comparable) keys.get(idName));
+            }
+
+            // NULLs compare as unknown, so the row value comparison below excludes them from subsequent windows too
+            if (keys == null) {
+                return createdDatePath.isNotNull();
+            }
+
+            // unlike 'created_date < ? OR (created_date = ? AND id < ?)', a row value comparison is seekable in the
+            // '(created_date, id)' index (QueryDSL has no row value expressions, hence the template)
+            return Expressions.booleanTemplate("({0}, {1}) < ({2}, {3})", createdDatePath, idPath,
+                    keys.get(AuditableEntity.Fields.createdDate), keys.get(idName));
+        }
+
+        OrderSpecifier<?>[] getOrderSpecifiers() {
+            return (createdDatePath == null)
+                    ? new OrderSpecifier<?>[]{idPath.desc()}
+                    : new OrderSpecifier<?>[]{createdDatePath.desc(), idPath.desc()};
+        }
+
+    }
+
 }
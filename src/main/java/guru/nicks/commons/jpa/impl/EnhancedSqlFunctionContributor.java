@@ -0,0 +1,99 @@
+package guru.nicks.commons.jpa.impl;
+
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers HQL functions used in {@link EnhancedSqlDialect} templates, so that search values can be bound as query
+ * parameters (rather than embedded as literals) and Hibernate knows the return types. Each HQL function calls the DB
+ * function of the same name which must be created in each DB, for unification.
+ * <p>
+ * Registered via {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class EnhancedSqlFunctionContributor implements FunctionContributor {
+
+    /**
+     * Arguments: full-text search column, full-text search query (text). Returns 0/1.
+     */
+    public static final String FULL_TEXT_SEARCH_FUNCTION = "full_text_search";
+
+    /**
+     * Arguments: full-text search column, full-text search query (text). Returns search rank (double).
+     */
+    public static final String FULL_TEXT_SEARCH_RANK_FUNCTION = "full_text_search_rank";
+
+    /**
+     * Arguments: full-text search column, prefix full-text search query (text). Returns a boolean which can be used as
+     * a condition as is. Registered for Postgres only, where it's native (not a user-defined function), so the GIN
+     * index can be used.
+     */
+    public static final String FULL_TEXT_SEARCH_PREFIX_FUNCTION = "full_text_search_prefix";
+
+    /**
+     * Arguments: full-text search column, prefix full-text search query (text). Returns search rank (double).
+     * Registered for Postgres only.
+     */
+    public static final String FULL_TEXT_SEARCH_PREFIX_RANK_FUNCTION = "full_text_search_prefix_rank";
+
+    /**
+     * Arguments: search data column (text), search text. Returns a boolean which can be used as a condition as is.
+     * Registered for Postgres only (requires the {@code pg_trgm} extension), where it's native (not a user-defined
+     * function), so the trigram GIN index can be used.
+     */
+    public static final String FULL_TEXT_SEARCH_TRIGRAM_FUNCTION = "full_text_search_trigram";
+
+    /**
+     * Arguments: search data column (text), search text. Returns similarity (double between 0 and 1). Registered for
+     * Postgres only (requires the {@code pg_trgm} extension).
+     */
+    public static final String FULL_TEXT_SEARCH_TRIGRAM_RANK_FUNCTION = "full_text_search_trigram_rank";
+
+    /**
+     * Arguments: JSON column, JSON value (text). Returns 0/1.
+     */
+    public static final String JSON_CONTAINS_FUNCTION = "json_contains";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry functionRegistry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry typeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionRegistry.registerPattern(FULL_TEXT_SEARCH_FUNCTION, "FULL_TEXT_SEARCH(?1, ?2)",
+                typeRegistry.resolve(StandardBasicTypes.INTEGER));
+        functionRegistry.registerPattern(FULL_TEXT_SEARCH_RANK_FUNCTION, "FULL_TEXT_SEARCH_RANK(?1, ?2)",
+                typeRegistry.resolve(StandardBasicTypes.DOUBLE));
+
+        boolean postgres = functionContributions.getDialect() instanceof PostgreSQLDialect;
+
+        // 'simple' configuration doesn't stem words, which is needed for prefix matching of words stored as they are;
+        // rank is divided by 1 + log(document length), so that long documents don't win just because they're long
+        if (postgres) {
+            functionRegistry.registerPattern(FULL_TEXT_SEARCH_PREFIX_FUNCTION, "(?1 @@ to_tsquery('simple', ?2))",
+                    typeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+            functionRegistry.registerPattern(FULL_TEXT_SEARCH_PREFIX_RANK_FUNCTION,
+                    "ts_rank(?1, to_tsquery('simple', ?2), 1)",
+                    typeRegistry.resolve(StandardBasicTypes.DOUBLE));
+
+            // word similarity (unlike plain similarity) doesn't decrease as search data grows, and '<%' is supported by
+            // trigram indexes; the threshold is 'pg_trgm.word_similarity_threshold' (0.6 by default)
+            functionRegistry.registerPattern(FULL_TEXT_SEARCH_TRIGRAM_FUNCTION, "(?2 <% ?1)",
+                    typeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+            functionRegistry.registerPattern(FULL_TEXT_SEARCH_TRIGRAM_RANK_FUNCTION, "word_similarity(?2, ?1)",
+                    typeRegistry.resolve(StandardBasicTypes.DOUBLE));
+        }
+
+        // JSON is bound as varchar, and Postgres doesn't cast it to jsonb implicitly
+        String jsonContainsPattern = postgres
+                ? "JSON_CONTAINS(?1, CAST(?2 AS jsonb))"
+                : "JSON_CONTAINS(?1, ?2)";
+        functionRegistry.registerPattern(JSON_CONTAINS_FUNCTION, jsonContainsPattern,
+                typeRegistry.resolve(StandardBasicTypes.INTEGER));
+    }
+
+}
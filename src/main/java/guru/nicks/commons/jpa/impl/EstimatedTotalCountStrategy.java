@@ -0,0 +1,51 @@
+package guru.nicks.commons.jpa.impl;
+
+import guru.nicks.commons.jpa.repository.TotalCountStrategy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.OptionalLong;
+
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
+
+/**
+ * Trusts the number of matching rows estimated by the DB query planner for the search (see
+ * {@link Request#estimateSupplier()}), if the estimate is at least the threshold. Otherwise, or if the estimate is not
+ * available, counts exactly (logged at debug level).
+ * <p>
+ * Table statistics are refreshed by {@code ANALYZE} (including auto-vacuum), so for searches without conditions the
+ * estimate is usually off by a few percent only. For filtered searches, it also depends on how well the planner guesses
+ * selectivity of the conditions, which is acceptable for big result sets shown page by page, but not where the total
+ * must be exact.
+ *
+ * @see TotalCountStrategy#estimated(long)
+ */
+@Slf4j
+public class EstimatedTotalCountStrategy implements TotalCountStrategy {
+
+    private final long threshold;
+
+    /**
+     * Constructor.
+     *
+     * @param threshold minimum estimate to trust
+     */
+    public EstimatedTotalCountStrategy(long threshold) {
+        check(threshold, "threshold").constraint(value -> value >= 0, "must not be negative");
+        this.threshold = threshold;
+    }
+
+    @Override
+    public long count(Request request) {
+        OptionalLong estimate = request.estimateSupplier().get();
+
+        if (estimate.isPresent() && (estimate.getAsLong() >= threshold)) {
+            return estimate.getAsLong();
+        }
+
+        log.debug("Counting [{}] exactly: row count estimate is {} (threshold: {})", request.entityClass().getName(),
+                estimate.isPresent() ? estimate.getAsLong() : "not available", threshold);
+        return request.exactCounter().getAsLong();
+    }
+
+}
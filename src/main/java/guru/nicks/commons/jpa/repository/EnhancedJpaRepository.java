@@ -6,6 +6,7 @@ import guru.nicks.commons.jpa.domain.JpaConstants;
 import guru.nicks.commons.jpa.impl.EnhancedJpaRepositoryImpl;
 
 import jakarta.persistence.EntityGraph;
+import org.hibernate.StatelessSession;
 import org.springframework.beans.BeanInstantiationException;
 import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,11 +15,17 @@ import org.springframework.data.repository.NoRepositoryBean;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * A combination of common JPA-related repository interfaces augmented with some custom functionality. Used implicitly
@@ -116,6 +123,11 @@ public interface EnhancedJpaRepository<T extends Persistable<ID>,
     /**
      * Unlike {@link #findAllById(Iterable)}, returns elements in the same order as their IDs are returned by the input
      * collection (which may or may not be ordered). Implemented in {@link EnhancedJpaRepositoryImpl}.
+     * <p>
+     * IDs are queried in chunks of up to {@link JpaConstants#IN_CLAUSE_CHUNK_SIZE}; each chunk is padded (by repeating
+     * its last ID) to the next power of two, which keeps the number of distinct SQL statements low. If
+     * {@link JpaInference#isIdArrayLookupEnabled()}, all IDs are bound as a single array
+     * instead (unless the ID has an attribute converter or a custom type).
      *
      * @param ids IDs
      * @return elements in the same order as in {@code ids}, mutable list - crucial for Hibernate if this list is
@@ -123,6 +135,21 @@ public interface EnhancedJpaRepository<T extends Persistable<ID>,
      */
     List<T> findAllByIdPreserveOrder(Collection<ID> ids);
 
+    /**
+     * Does the same as {@link #findAllByIdPreserveOrder(Collection)}, but runs the chunks in parallel on the given
+     * executor. Implemented in {@link EnhancedJpaRepositoryImpl}.
+     * <p>
+     * WARNING: each chunk is fetched in its own read-only transaction, outside the caller's persistence context, so the
+     * entities returned are detached, and changes not yet flushed by the caller aren't visible. The executor should be
+     * bounded - the number of concurrent queries (and DB connections) is limited by it only. If a chunk fails, the
+     * chunks not started yet are cancelled, and its exception is rethrown without waiting for the running ones.
+     *
+     * @param ids      IDs
+     * @param executor executor to run the chunks on
+     * @return elements in the same order as in {@code ids}, mutable list
+     */
+    List<T> findAllByIdPreserveOrder(Collection<ID> ids, Executor executor);
+
     /**
      * Saves a collection of entities in batches of {@link JpaConstants#INTERNAL_PAGE_SIZE}, flushing and clearing the
      * persistence context after each batch. This is more memory-efficient for bulk operations than
@@ -144,4 +171,118 @@ public interface EnhancedJpaRepository<T extends Persistable<ID>,
      */
     List<T> saveAllAndFlushInBatches(Collection<T> entities, int batchSize);
 
+    /**
+     * Streaming counterpart of {@link #saveAllAndFlushInBatches(Collection, int)}: consumes the input lazily and never
+     * holds more than one batch in memory, which makes it suitable for reading from files, message consumers, etc.
+     * Implemented in {@link EnhancedJpaRepositoryImpl}.
+     *
+     * @param entities      entities to save, must not be {@code null}
+     * @param batchSize     size of each batch, must be positive
+     * @param batchConsumer receives each batch of saved entities right after it has been flushed (the persistence
+     *                      context is cleared when the consumer returns); pass {@code batch -> {}} if not needed
+     * @return number of entities saved
+     */
+    long saveAllAndFlushInBatches(Iterator<T> entities, int batchSize, Consumer<List<T>> batchConsumer);
+
+    /**
+     * Does the same as {@link #saveAllAndFlushInBatches(Iterator, int, Consumer)}. The stream is not closed - that's
+     * the caller's responsibility.
+     *
+     * @param entities      entities to save, must not be {@code null}
+     * @param batchSize     size of each batch, must be positive
+     * @param batchConsumer receives each batch of saved entities
+     * @return number of entities saved
+     */
+    default long saveAllAndFlushInBatches(Stream<T> entities, int batchSize, Consumer<List<T>> batchConsumer) {
+        return saveAllAndFlushInBatches(entities.iterator(), batchSize, batchConsumer);
+    }
+
+    /**
+     * Does the same as {@link #saveAllAndFlushInBatches(Iterator, int, Consumer)}.
+     *
+     * @param entities      entities to save, must not be {@code null}
+     * @param batchSize     size of each batch, must be positive
+     * @param batchConsumer receives each batch of saved entities
+     * @return number of entities saved
+     */
+    default long saveAllAndFlushInBatches(Spliterator<T> entities, int batchSize, Consumer<List<T>> batchConsumer) {
+        return saveAllAndFlushInBatches(Spliterators.iterator(entities), batchSize, batchConsumer);
+    }
+
+    /**
+     * Does the same as {@link #insertAllInBatches(Collection, int)} with batches of
+     * {@link JpaConstants#INTERNAL_PAGE_SIZE}. Implemented in {@link EnhancedJpaRepositoryImpl}.
+     *
+     * @param entities new entities to insert, must not be {@code null}
+     * @return inserted entities (with IDs assigned)
+     */
+    List<T> insertAllInBatches(Collection<T> entities);
+
+    /**
+     * Inserts new entities via a Hibernate {@link StatelessSession} which shares the current transaction (and its JDBC
+     * connection). Unlike {@link #saveAllAndFlushInBatches(Collection, int)}, there's no merge/persist decision, no
+     * dirty checking, and no persistence context at all - the {@code INSERT} statements are sent to DB as JDBC batches
+     * of {@code batchSize}. Implemented in {@link EnhancedJpaRepositoryImpl}.
+     * <p>
+     * IDs are assigned by the entity ID generators right before each insert. JPA {@code @PrePersist/@PostPersist}
+     * callbacks are invoked explicitly (stateless sessions skip them), so audit properties and full-text search data
+     * are populated as usual. Cascades, collections, and {@code @Version} checks are NOT processed.
+     * <p>
+     * WARNING: this method is for new entities only; existing ones will cause duplicate key violations.
+     *
+     * @param entities  new entities to insert, must not be {@code null}
+     * @param batchSize JDBC batch size, must be positive
+     * @return inserted entities (with IDs assigned)
+     * @see #insertAllInBatchesAndCount(Collection, int)
+     */
+    List<T> insertAllInBatches(Collection<T> entities, int batchSize);
+
+    /**
+     * Does the same as {@link #insertAllInBatches(Collection, int)}, but doesn't collect the inserted entities, which
+     * keeps memory consumption flat regardless of the number of entities. Implemented in
+     * {@link EnhancedJpaRepositoryImpl}.
+     *
+     * @param entities  new entities to insert, must not be {@code null}
+     * @param batchSize JDBC batch size, must be positive
+     * @return number of entities inserted
+     */
+    long insertAllInBatchesAndCount(Collection<T> entities, int batchSize);
+
+    /**
+     * Streaming counterpart of {@link #insertAllInBatches(Collection, int)}: consumes the input lazily and never holds
+     * more than one batch in memory. Implemented in {@link EnhancedJpaRepositoryImpl}.
+     *
+     * @param entities      new entities to insert, must not be {@code null}
+     * @param batchSize     JDBC batch size, must be positive
+     * @param batchConsumer receives each batch of inserted entities (with IDs assigned) right after it has been sent to
+     *                      DB; pass {@code batch -> {}} if not needed
+     * @return number of entities inserted
+     */
+    long insertAllInBatches(Iterator<T> entities, int batchSize, Consumer<List<T>> batchConsumer);
+
+    /**
+     * Does the same as {@link #insertAllInBatches(Iterator, int, Consumer)}. The stream is not closed - that's the
+     * caller's responsibility.
+     *
+     * @param entities      new entities to insert, must not be {@code null}
+     * @param batchSize     JDBC batch size, must be positive
+     * @param batchConsumer receives each batch of inserted entities
+     * @return number of entities inserted
+     */
+    default long insertAllInBatches(Stream<T> entities, int batchSize, Consumer<List<T>> batchConsumer) {
+        return insertAllInBatches(entities.iterator(), batchSize, batchConsumer);
+    }
+
+    /**
+     * Does the same as {@link #insertAllInBatches(Iterator, int, Consumer)}.
+     *
+     * @param entities      new entities to insert, must not be {@code null}
+     * @param batchSize     JDBC batch size, must be positive
+     * @param batchConsumer receives each batch of inserted entities
+     * @return number of entities inserted
+     */
+    default long insertAllInBatches(Spliterator<T> entities, int batchSize, Consumer<List<T>> batchConsumer) {
+        return insertAllInBatches(Spliterators.iterator(entities), batchSize, batchConsumer);
+    }
+
 }
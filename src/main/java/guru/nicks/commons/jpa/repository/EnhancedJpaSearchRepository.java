@@ -1,16 +1,23 @@
 package guru.nicks.commons.jpa.repository;
 
+import guru.nicks.commons.jpa.domain.AuditableEntity;
 import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
 import guru.nicks.commons.jpa.impl.EnhancedJpaSearchRepositoryImpl;
+import guru.nicks.commons.sortableid.TimeSortableId;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.EntityPathBase;
 import jakarta.persistence.EntityGraph;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Persistable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import java.io.Serializable;
@@ -18,6 +25,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Search-related enhancements for JPA repositories. Used implicitly via {@link EnhancedJpaRepositoryFactoryBean}.
@@ -76,7 +84,7 @@ public interface EnhancedJpaSearchRepository<T extends Persistable<ID>,
      * If {@code fulltextSearchText} contains a non-blank string, applies Hibernate-safe syntax to perform full-text
      * search on the {@value FullTextSearchAwareEntity#FULL_TEXT_SEARCH_DATA_PROPERTY} property.
      * {@code FULL_TEXT_SEARCH (fts_column, fts_query)} function returning 0/1 must be created in each DB, for
-     * unification.
+     * unification. The search query is bound as a {@code text} parameter, so that the SQL is the same for all queries.
      * <p>
      * WARNING: don't use entity graphs to fetch collections with pagination - LEFT JOINs on collections break native
      * pagination. Hibernate issues a warning about having to paginate in memory, but it'd be better to fail. Instead,
@@ -95,13 +103,157 @@ public interface EnhancedJpaSearchRepository<T extends Persistable<ID>,
     Page<T> findByFilter(F filter, Supplier<String> fullTextSearchSupplier, Pageable pageable,
             EntityPathBase<T> queryDslEntity, Supplier<EntityGraph<T>> entityGraphSupplier);
 
+    /**
+     * Same as {@link #findByFilter(Object, Supplier, Pageable, EntityPathBase, Supplier)}, but selects a projection
+     * instead of entities (<b>method implemented in {@link EnhancedJpaSearchRepositoryImpl}</b>). Only the columns
+     * referenced by the projection are read, and no entities are put into the persistence context - this spares list
+     * endpoints from hydrating whole entities (including full-text search data) just to map a few columns to DTOs.
+     * <p>
+     * Example: {@code Projections.constructor(MyDto.class, QMyEntity.myEntity.id, QMyEntity.myEntity.name)}.
+     *
+     * @param filter                 filter
+     * @param fullTextSearchSupplier supplier for full-text search text, returns {@code null} or a blank/empty string if
+     *                               FTS is not needed
+     * @param pageable               pagination/sorting request (sorting is by entity properties), at least
+     *                               {@link Pageable#unpaged()}
+     * @param queryDslEntity         retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param projection             what to select, e.g. {@link Projections#constructor(Class, Expression[])}
+     * @param <P>                    projection type
+     * @return page of projections
+     */
+    <P> Page<P> findByFilter(F filter, Supplier<String> fullTextSearchSupplier, Pageable pageable,
+            EntityPathBase<T> queryDslEntity, Expression<P> projection);
+
+    /**
+     * Returns the strategy for computing totals in
+     * {@link #findByFilter(Object, Supplier, Pageable, EntityPathBase, Supplier)}. Repositories may override this
+     * method to opt in to cached or estimated totals, for example:
+     * {@code TotalCountStrategy TOTAL_COUNT = TotalCountStrategy.cached(Duration.ofMinutes(1), 1000);} declared in the
+     * repository and returned from this method (a constant, because each cached strategy has its own cache).
+     *
+     * @return {@link TotalCountStrategy#EXACT} by default
+     */
+    default TotalCountStrategy getTotalCountStrategy() {
+        return TotalCountStrategy.EXACT;
+    }
+
+    /**
+     * Tells if full-text searches sorted by search rank in
+     * {@link #findByFilter(Object, Supplier, Pageable, EntityPathBase, Supplier)} and
+     * {@link #findSliceByFilter(Object, Supplier, Pageable, EntityPathBase, Supplier)} run in two phases:
+     * <ol>
+     *     <li>only IDs of the requested page are selected, sorted by search rank, so the DB doesn't sort whole rows
+     *         (including wide columns) of all the matching entities</li>
+     *     <li>the entities (with the entity graph applied) are fetched by these IDs and returned in their order</li>
+     * </ol>
+     * This reduces sort memory and I/O for broad searches at the cost of an extra query. Repositories may override
+     * this method to opt in. Unpaged searches always run in a single phase.
+     *
+     * @return {@code false} by default
+     */
+    default boolean isTwoPhaseRankedSearchEnabled() {
+        return false;
+    }
+
+    /**
+     * Same as {@link #findByFilter(Object, Supplier, Pageable, EntityPathBase, Supplier)}, but never issues a
+     * {@code COUNT} query (<b>method implemented in {@link EnhancedJpaSearchRepositoryImpl}</b>). Instead, fetches one
+     * extra row to find out if there's a next slice. This suits infinite scrolling and batch processing, where the
+     * exact total is not needed.
+     *
+     * @param filter                 filter
+     * @param fullTextSearchSupplier supplier for full-text search text, returns {@code null} or a blank/empty string if
+     *                               FTS is not needed
+     * @param pageable               pagination/sorting request, at least {@link Pageable#unpaged()}
+     * @param queryDslEntity         retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param entityGraphSupplier    entity graph to fetch associated entities, can return {@code null}
+     * @return slice of entities found
+     */
+    Slice<T> findSliceByFilter(F filter, Supplier<String> fullTextSearchSupplier, Pageable pageable,
+            EntityPathBase<T> queryDslEntity, Supplier<EntityGraph<T>> entityGraphSupplier);
+
+    /**
+     * Streams entities found by filter, for large exports (<b>method implemented in
+     * {@link EnhancedJpaSearchRepositoryImpl}</b>). Rows are read through a forward-only server-side cursor
+     * {@code fetchSize} rows at a time, and the entities loaded by the stream are detached every {@code fetchSize}
+     * entities, so memory consumption doesn't depend on the number of entities found. Other entities managed by the
+     * same persistence context, including their pending changes, are left intact.
+     * <p>
+     * WARNING:
+     * <ul>
+     *     <li>must be called inside a transaction which lasts until the stream is consumed, otherwise an exception is
+     *         thrown</li>
+     *     <li>the stream must be closed (e.g. with try-with-resources) to release the cursor</li>
+     *     <li>entities are read-only and periodically detached, except for those which had already been managed by
+     *         the persistence context before the stream loaded them (they're returned as they are)</li>
+     *     <li>entities loaded lazily while processing the stream (such as associations) are not detached</li>
+     *     <li>don't use entity graphs to fetch collections - LEFT JOINs on collections duplicate root entities</li>
+     * </ul>
+     *
+     * @param filter                 filter
+     * @param fullTextSearchSupplier supplier for full-text search text, returns {@code null} or a blank/empty string if
+     *                               FTS is not needed
+     * @param sort                   sorting request, at least {@link Sort#unsorted()}
+     * @param fetchSize              JDBC fetch size, also the number of entities after which the entities loaded are
+     *                               detached
+     * @param queryDslEntity         retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param entityGraphSupplier    entity graph to fetch associated entities, can return {@code null}
+     * @return stream of entities found
+     */
+    Stream<T> streamByFilter(F filter, Supplier<String> fullTextSearchSupplier, Sort sort, int fetchSize,
+            EntityPathBase<T> queryDslEntity, Supplier<EntityGraph<T>> entityGraphSupplier);
+
+    /**
+     * Finds entities by filter using keyset (a.k.a. seek) pagination (<b>method implemented in
+     * {@link EnhancedJpaSearchRepositoryImpl}</b>). Unlike offset pagination, the DB doesn't have to scan and discard
+     * all the preceding rows, so deep windows cost as much as the first one.
+     * <p>
+     * Entities are sorted from newest to oldest: by {@link AuditableEntity#getCreatedDate()} and then by ID (as a
+     * tie-breaker) if the entity extends {@link AuditableEntity}, or by ID alone otherwise - which only makes sense for
+     * time-sortable IDs, such as UUIDv7 or {@link TimeSortableId}. To benefit from an index, create it on
+     * {@code (created_date, id)} (or on the ID alone, which is the primary key anyway): the position is compared as a
+     * row value, {@code (created_date, id) < (?, ?)}, which the DB can seek in such an index.
+     * <p>
+     * Entities whose {@link AuditableEntity#getCreatedDate()} is {@code null} (it's assigned on insert, so these can
+     * only be rows inserted bypassing JPA) have no position in the sort order and are never returned.
+     * <p>
+     * Full-text search, if requested, acts as a filter only: results are never sorted by search rank.
+     *
+     * @param filter                    filter
+     * @param fullTextSearchSupplier    supplier for full-text search text, returns {@code null} or a blank/empty string
+     *                                  if FTS is not needed
+     * @param continuationTokenSupplier returns {@code null} for the first window, or a token created by
+     *                                  {@link #createContinuationToken(Window)} for the subsequent ones
+     * @param limit                     maximum number of entities in the window, must be positive
+     * @param queryDslEntity            retrieved from QueryDSL as {@code QSomeEntity.someEntity}
+     * @param entityGraphSupplier       entity graph to fetch associated entities, can return {@code null}
+     * @return window of entities found ({@link Window#hasNext()} tells if there are more of them)
+     * @throws IllegalArgumentException the continuation token is invalid
+     */
+    Window<T> scrollByFilter(F filter, Supplier<String> fullTextSearchSupplier,
+            Supplier<String> continuationTokenSupplier, int limit, EntityPathBase<T> queryDslEntity,
+            Supplier<EntityGraph<T>> entityGraphSupplier);
+
+    /**
+     * Creates an opaque (URL-safe) continuation token pointing past the last entity in the window (<b>method
+     * implemented in {@link EnhancedJpaSearchRepositoryImpl}</b>). The token is meant to be passed to
+     * {@link #scrollByFilter(Object, Supplier, Supplier, int, EntityPathBase, Supplier)} to fetch the next window.
+     *
+     * @param window window returned by
+     *               {@link #scrollByFilter(Object, Supplier, Supplier, int, EntityPathBase, Supplier)}
+     * @return continuation token
+     * @throws IllegalArgumentException the window is empty, or keyset values of its last entity are {@code null}
+     */
+    String createContinuationToken(Window<T> window);
+
     /**
      * Applies Hibernate-safe syntax to search inside a JSON column (<b>method implemented in
      * {@link EnhancedJpaSearchRepositoryImpl}</b>). {@code JSON_CONTAINS (json_column, json_value)} function returning
-     * 0/1 must be created in each DB, for unification.
+     * 0/1 must be created in each DB, for unification. The value is bound as a parameter (cast to {@code jsonb} in
+     * Postgres), so that the SQL is the same for all values.
      *
      * @param propertyName property name (of type {@code jsonb} in Postgres); will be converted to column name
-     * @param value        value to search for - scalar or object; will be JSON-quoted to prevent SQL injection attacks
+     * @param value        value to search for - scalar or object; will be converted to JSON
      * @return boolean expression for QueryDSL
      * @throws IllegalArgumentException error encoding value as JSON
      */
@@ -0,0 +1,84 @@
+package guru.nicks.commons.jpa.repository;
+
+import guru.nicks.commons.jpa.impl.CachedTotalCountStrategy;
+import guru.nicks.commons.jpa.impl.EstimatedTotalCountStrategy;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Computes the total number of entities matching a paged search, see
+ * {@link EnhancedJpaSearchRepository#getTotalCountStrategy()}.
+ */
+@FunctionalInterface
+public interface TotalCountStrategy {
+
+    /**
+     * Always runs {@code SELECT COUNT(*)}. This is the default strategy.
+     */
+    TotalCountStrategy EXACT = request -> request.exactCounter().getAsLong();
+
+    /**
+     * Creates a strategy which runs {@code SELECT COUNT(*)} once per entity class, filter, and full-text search text,
+     * and then reuses the result until it expires. Therefore, the filter class must implement {@code equals} and
+     * {@code hashCode} properly (records and Lombok's {@code @Value} do).
+     * <p>
+     * Each call creates a new cache, so store the result in a constant.
+     *
+     * @param timeToLive  how long each total is reused for
+     * @param maxEntries  maximum number of cached totals
+     * @return strategy
+     */
+    static TotalCountStrategy cached(Duration timeToLive, long maxEntries) {
+        return new CachedTotalCountStrategy(timeToLive, maxEntries);
+    }
+
+    /**
+     * Creates a strategy which takes the number of matching rows estimated by the DB query planner for the search
+     * (with all its conditions, including full-text search), if it's at least the given threshold. Otherwise, or if
+     * the estimate is not available, runs {@code SELECT COUNT(*)}.
+     * <p>
+     * WARNING: the planner estimates selectivity of conditions from table statistics, so the estimate for a filtered
+     * (and especially full-text) search may be far off - e.g. for correlated conditions or rare words - and the last
+     * pages may turn out to be empty or missing. Use this strategy only where an approximate total is acceptable. The
+     * fallback to the exact count is logged at debug level.
+     *
+     * @param threshold minimum estimate to trust (smaller tables are counted exactly, which is cheap)
+     * @return strategy
+     */
+    static TotalCountStrategy estimated(long threshold) {
+        return new EstimatedTotalCountStrategy(threshold);
+    }
+
+    /**
+     * Computes the total number of entities.
+     *
+     * @param request search details
+     * @return total number of entities
+     */
+    long count(Request request);
+
+    /**
+     * Search details passed to {@link #count(Request)}.
+     *
+     * @param entityClass      entity class
+     * @param filter           search filter, as passed to the repository
+     * @param fullTextSearch   full-text search text, normalized (lowercase, whitespace collapsed), or {@code null} if
+     *                         there's no full-text search
+     * @param exactCounter     runs {@code SELECT COUNT(*)} with all the search conditions
+     * @param estimateSupplier returns the number of rows matching all the search conditions, as estimated by the DB
+     *                         query planner, or {@link OptionalLong#empty()} if the estimate is not available
+     */
+    record Request(
+            Class<?> entityClass,
+            @Nullable Object filter,
+            @Nullable String fullTextSearch,
+            LongSupplier exactCounter,
+            Supplier<OptionalLong> estimateSupplier) {
+    }
+
+}
@@ -0,0 +1,239 @@
+package guru.nicks.commons.jpa.service;
+
+import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.domain.FullTextSearchStrategy;
+import guru.nicks.commons.utils.text.NgramUtilsConfig;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.mapping.EntityIdentifierMapping;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.descriptor.ValueBinder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
+
+/**
+ * Writes full-text search data bypassing JPA, for {@link FullTextSearchRebuildService} and
+ * {@link FullTextSearchReindexService}: search text is collected from entities while their session is open, search
+ * data is computed without holding a DB connection, and then it's written (together with its checksum, nothing else)
+ * with a JDBC batch update. Rows whose checksum has been changed concurrently are skipped.
+ * <p>
+ * Transactions are resource-local ones, created directly by {@link EntityManagerFactory}, i.e. they don't depend on
+ * transaction managers (which aren't created by this starter). IDs are bound to the update statement via the ID type
+ * mapping of the entity, so converted IDs and IDs having custom types are supported (composite IDs are not).
+ */
+final class FullTextSearchDataUpdater {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JpaInference jpaInference;
+
+    /**
+     * Statements built by {@link #createUpdateStatement(Class, FullTextSearchStrategy)}, per entity class.
+     */
+    private final Map<Class<?>, UpdateStatement> updateStatementCache = new ConcurrentHashMap<>();
+
+    FullTextSearchDataUpdater(EntityManagerFactory entityManagerFactory, JpaInference jpaInference) {
+        this.entityManagerFactory = checkNotNull(entityManagerFactory, "entityManagerFactory");
+        this.jpaInference = checkNotNull(jpaInference, "jpaInference");
+    }
+
+    /**
+     * Collects search text of the entity. Suppliers may need lazy associations, so this must be called while the
+     * session is open.
+     *
+     * @param entity entity
+     * @return entity whose search data is to be rebuilt
+     */
+    StaleEntity toStaleEntity(FullTextSearchAwareEntity<?> entity) {
+        return new StaleEntity(entity.getId(), entity.collectFullTextSearchText(),
+                entity.getFullTextSearchDataChecksum(), entity.getNgramUtilsConfig(),
+                entity.getFullTextSearchStrategy(), entity.getMaxFullTextSearchDataLength());
+    }
+
+    /**
+     * Computes search data and its checksum - the costly part, to be called without holding a DB connection.
+     *
+     * @param entity entity whose search data is to be rebuilt
+     * @return row to update
+     */
+    FullTextSearchDataRow toFullTextSearchDataRow(StaleEntity entity) {
+        return new FullTextSearchDataRow(entity.id(),
+                FullTextSearchAwareEntity.buildFullTextSearchData(entity.text(), entity.config(), entity.strategy(),
+                        entity.maxLength()),
+                FullTextSearchAwareEntity.computeFullTextSearchChecksum(entity.text()),
+                entity.staleChecksum());
+    }
+
+    /**
+     * Writes full-text search data and its checksum with a JDBC batch update.
+     *
+     * @param session     Hibernate session
+     * @param entityClass entity class
+     * @param strategy    full-text search strategy of the entity class
+     * @param rows        rows to update
+     * @return number of rows updated
+     * @see EnhancedSqlDialect#getFullTextSearchDataUpdateTemplate(FullTextSearchStrategy)
+     */
+    int updateFullTextSearchData(Session session, Class<?> entityClass, FullTextSearchStrategy strategy,
+            List<FullTextSearchDataRow> rows) {
+        UpdateStatement update = updateStatementCache.computeIfAbsent(entityClass,
+                clazz -> createUpdateStatement(clazz, strategy));
+        var sessionImplementor = session.unwrap(SharedSessionContractImplementor.class);
+
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(update.sql())) {
+                for (FullTextSearchDataRow row : rows) {
+                    statement.setString(1, row.data());
+                    statement.setString(2, row.checksum());
+                    // the same way Hibernate binds IDs: attribute converters and custom types are applied
+                    update.idBinder().bind(statement, update.idJdbcMapping().convertToRelationalValue(row.id()), 3,
+                            sessionImplementor);
+                    statement.setString(4, row.expectedChecksum());
+                    statement.addBatch();
+                }
+
+                return (int) Arrays.stream(statement.executeBatch())
+                        .filter(count -> (count > 0) || (count == Statement.SUCCESS_NO_INFO))
+                        .count();
+            }
+        });
+    }
+
+    String getEntityName(Class<?> entityClass) {
+        return entityManagerFactory.getMetamodel().entity(entityClass).getName();
+    }
+
+    String getIdPropertyName(Class<?> entityClass) {
+        return getEntityPersister(entityClass).getIdentifierPropertyName();
+    }
+
+    EntityPersister getEntityPersister(Class<?> entityClass) {
+        return getSessionFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityClass);
+    }
+
+    SessionFactoryImplementor getSessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    /**
+     * Runs the given code in a new resource-local transaction, with a new entity manager.
+     *
+     * @param work code to run
+     * @param <R>  result type
+     * @return what the code returns
+     */
+    <R> R inTransaction(Function<Session, R> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+
+        try {
+            transaction.begin();
+            R result = work.apply(entityManager.unwrap(Session.class));
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+
+            throw e;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Builds the update statement for the entity class.
+     *
+     * @param entityClass entity class
+     * @param strategy    full-text search strategy of the entity class
+     * @return update statement
+     * @throws IllegalStateException the entity has a composite ID
+     */
+    @SuppressWarnings("unchecked")
+    private UpdateStatement createUpdateStatement(Class<?> entityClass, FullTextSearchStrategy strategy) {
+        EntityIdentifierMapping idMapping = getEntityPersister(entityClass).getIdentifierMapping();
+
+        if (idMapping.getJdbcTypeCount() != 1) {
+            throw new IllegalStateException("Composite IDs are not supported by FTS data updates: "
+                    + entityClass.getName());
+        }
+
+        String sql = String.format(Locale.US,
+                jpaInference.getSqlDialect().getFullTextSearchDataUpdateTemplate(strategy),
+                jpaInference.getTableName(entityClass),
+                jpaInference.getColumnName(entityClass, FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY),
+                jpaInference.getColumnName(entityClass, FullTextSearchAwareEntity.Fields.fullTextSearchDataChecksum),
+                jpaInference.getColumnName(entityClass, getIdPropertyName(entityClass)));
+
+        JdbcMapping idJdbcMapping = idMapping.getSingleJdbcMapping();
+        return new UpdateStatement(sql, idJdbcMapping, (ValueBinder<Object>) idJdbcMapping.getJdbcValueBinder());
+    }
+
+    /**
+     * Entity whose search data is to be rebuilt.
+     *
+     * @param id            entity ID
+     * @param text          search text, see {@link FullTextSearchAwareEntity#collectFullTextSearchText()}
+     * @param staleChecksum current checksum (stale, unless reindexing)
+     * @param config        ngram configuration
+     * @param strategy      full-text search strategy
+     * @param maxLength     maximum length of search data
+     */
+    record StaleEntity(
+            Object id,
+            String text,
+            String staleChecksum,
+            NgramUtilsConfig config,
+            FullTextSearchStrategy strategy,
+            int maxLength) {
+    }
+
+    /**
+     * Row to update.
+     *
+     * @param id               entity ID
+     * @param data             new search data
+     * @param checksum         new checksum
+     * @param expectedChecksum the row is not updated if its current checksum differs
+     */
+    record FullTextSearchDataRow(
+            Object id,
+            String data,
+            String checksum,
+            String expectedChecksum) {
+    }
+
+    /**
+     * Update statement of an entity class.
+     *
+     * @param sql           SQL, see
+     *                      {@link EnhancedSqlDialect#getFullTextSearchDataUpdateTemplate(FullTextSearchStrategy)}
+     * @param idJdbcMapping ID type mapping
+     * @param idBinder      binds IDs converted by {@code idJdbcMapping} to the statement
+     */
+    private record UpdateStatement(
+            String sql,
+            JdbcMapping idJdbcMapping,
+            ValueBinder<Object> idBinder) {
+    }
+
+}
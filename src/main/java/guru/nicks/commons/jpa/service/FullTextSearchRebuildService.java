@@ -0,0 +1,265 @@
+package guru.nicks.commons.jpa.service;
+
+import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.domain.JpaConstants;
+import guru.nicks.commons.jpa.service.FullTextSearchDataUpdater.FullTextSearchDataRow;
+import guru.nicks.commons.jpa.service.FullTextSearchDataUpdater.StaleEntity;
+import guru.nicks.commons.utils.text.NgramUtilsConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
+import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
+
+/**
+ * Rebuilds full-text search ngrams in background for entities which opted in for it (see
+ * {@link FullTextSearchAwareEntity#isFullTextSearchRebuildDeferred()}). Listens to Hibernate post-commit
+ * insert/update events and queues IDs of entities having stale search data. The queue is processed in batches, at most
+ * one batch at a time per entity class:
+ * <ol>
+ *     <li>entities are loaded and their search text is collected - in a short transaction</li>
+ *     <li>ngrams are computed - outside of any transaction, i.e. without holding a DB connection</li>
+ *     <li>search data and its checksum (only them) are written with a JDBC batch update - in another short
+ *         transaction; rows whose checksum has been changed concurrently are skipped, as they're queued again by their
+ *         own post-commit events</li>
+ * </ol>
+ * Transactions are resource-local ones, created directly by {@link EntityManagerFactory}, i.e. they don't depend on
+ * transaction managers (which aren't created by this starter).
+ * <p>
+ * The service is created by the auto-configuration only if {@value #ENABLED_PROPERTY_NAME} is {@code true}, which is
+ * required for {@link FullTextSearchAwareEntity#isFullTextSearchRebuildDeferred()} to have any effect (otherwise the
+ * search data remains stale).
+ * <p>
+ * Stale search data left after an application restart can be rebuilt with {@link #rebuildAllStale(Class)}. Search
+ * data of all entities (for example, after {@link NgramUtilsConfig} has been changed) can be rebuilt with
+ * {@link FullTextSearchReindexService}, which doesn't depend on this service.
+ */
+@Slf4j
+public class FullTextSearchRebuildService implements PostCommitInsertEventListener, PostCommitUpdateEventListener {
+
+    /**
+     * Enables this service, {@code false} by default.
+     */
+    public static final String ENABLED_PROPERTY_NAME = "app.full-text-search.deferred-rebuild.enabled";
+
+    /**
+     * Maximum number of entities processed in a single batch, {@link JpaConstants#INTERNAL_PAGE_SIZE} by default.
+     */
+    public static final String BATCH_SIZE_PROPERTY_NAME = "app.full-text-search.deferred-rebuild.batch-size";
+
+    /**
+     * Name of the {@link Executor} bean which runs rebuild tasks. The auto-configuration creates one (with virtual
+     * threads) unless a bean with this name already exists.
+     */
+    public static final String EXECUTOR_BEAN_NAME = "fullTextSearchRebuildExecutor";
+
+    private final FullTextSearchDataUpdater updater;
+    private final Executor executor;
+    private final int batchSize;
+
+    /**
+     * Entity IDs waiting for ngram rebuild, per entity class.
+     */
+    private final Map<Class<?>, Queue<Object>> pendingIds = new ConcurrentHashMap<>();
+
+    /**
+     * Entity classes whose {@link #pendingIds} are being processed - at most one task per entity class.
+     */
+    private final Set<Class<?>> drainingEntityClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param entityManagerFactory entity manager factory
+     * @param jpaInference         JPA inference
+     * @param executor             runs rebuild tasks (at most one per entity class at a time); its lifecycle is
+     *                             managed by the caller
+     * @param batchSize            maximum number of entities processed in a single batch
+     */
+    public FullTextSearchRebuildService(EntityManagerFactory entityManagerFactory, JpaInference jpaInference,
+            Executor executor, int batchSize) {
+        updater = new FullTextSearchDataUpdater(entityManagerFactory, jpaInference);
+        this.executor = checkNotNull(executor, "executor");
+
+        check(batchSize, "batchSize").constraint(value -> value > 0, "must be positive");
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void registerEventListeners() {
+        EventListenerRegistry eventListenerRegistry = updater.getSessionFactory()
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    /**
+     * Queues entity for ngram rebuild. Does nothing if the entity doesn't have stale search data by the time it's
+     * processed.
+     *
+     * @param entityClass entity class
+     * @param id          entity ID
+     */
+    public void rebuildLater(Class<? extends FullTextSearchAwareEntity<?>> entityClass, Object id) {
+        checkNotNull(entityClass, "entityClass");
+        checkNotNull(id, "id");
+
+        pendingIds.computeIfAbsent(entityClass, clazz -> new ConcurrentLinkedQueue<>()).add(id);
+        startDraining(entityClass);
+    }
+
+    /**
+     * Queues all entities having stale search data for ngram rebuild. Useful after an application restart, when the
+     * queue has been lost.
+     *
+     * @param entityClass entity class
+     * @return number of entities queued
+     */
+    public int rebuildAllStale(Class<? extends FullTextSearchAwareEntity<?>> entityClass) {
+        checkNotNull(entityClass, "entityClass");
+
+        String jpql = String.format(Locale.US, "SELECT e.%s FROM %s e WHERE e.%s LIKE :prefix",
+                updater.getIdPropertyName(entityClass),
+                updater.getEntityName(entityClass),
+                FullTextSearchAwareEntity.Fields.fullTextSearchDataChecksum);
+
+        List<?> ids = updater.inTransaction(session -> session
+                .createQuery(jpql, Object.class)
+                .setParameter("prefix", FullTextSearchAwareEntity.STALE_CHECKSUM_PREFIX + "%")
+                .getResultList());
+
+        ids.forEach(id -> rebuildLater(entityClass, id));
+        log.info("Queued {} [{}] entities with stale FTS data", ids.size(), entityClass.getName());
+        return ids.size();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        queueIfStale(event.getPersister(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing has been stored, so nothing to rebuild
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        queueIfStale(event.getPersister(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing has been stored, so nothing to rebuild
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return FullTextSearchAwareEntity.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void queueIfStale(EntityPersister persister, Object entity, Object id) {
+        if ((entity instanceof FullTextSearchAwareEntity<?> ftsEntity) && ftsEntity.isFullTextSearchDataStale()) {
+            rebuildLater((Class<? extends FullTextSearchAwareEntity<?>>) persister.getMappedClass(), id);
+        }
+    }
+
+    private void startDraining(Class<?> entityClass) {
+        if (!drainingEntityClasses.add(entityClass)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> drain(entityClass));
+        } catch (RejectedExecutionException e) {
+            drainingEntityClasses.remove(entityClass);
+            log.warn("Failed to schedule FTS ngram rebuild for [{}]: {}", entityClass.getName(), e.getMessage());
+        }
+    }
+
+    private void drain(Class<?> entityClass) {
+        Queue<Object> ids = pendingIds.get(entityClass);
+
+        try {
+            for (List<Object> batch = pollBatch(ids); !batch.isEmpty(); batch = pollBatch(ids)) {
+                try {
+                    rebuildBatch(entityClass, batch);
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild FTS ngrams for [{}] IDs {}: {}", entityClass.getName(), batch,
+                            e.getMessage(), e);
+                }
+            }
+        } finally {
+            drainingEntityClasses.remove(entityClass);
+
+            // IDs may have been queued after the last poll, but before the above removal
+            if (!ids.isEmpty()) {
+                startDraining(entityClass);
+            }
+        }
+    }
+
+    private List<Object> pollBatch(Queue<Object> ids) {
+        List<Object> batch = new ArrayList<>(batchSize);
+        Object id;
+
+        while ((batch.size() < batchSize) && ((id = ids.poll()) != null)) {
+            batch.add(id);
+        }
+
+        return batch;
+    }
+
+    private void rebuildBatch(Class<?> entityClass, List<Object> ids) {
+        List<StaleEntity> staleEntities = updater.inTransaction(session -> {
+            // entities are not modified via JPA, so they don't need snapshots for dirty checking
+            session.setDefaultReadOnly(true);
+
+            return session.byMultipleIds(entityClass)
+                    .multiLoad(ids)
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .map(FullTextSearchAwareEntity.class::cast)
+                    .filter(FullTextSearchAwareEntity::isFullTextSearchDataStale)
+                    .map(updater::toStaleEntity)
+                    .toList();
+        });
+
+        // the costly part - no DB connection is held
+        List<FullTextSearchDataRow> rows = staleEntities.stream()
+                .map(updater::toFullTextSearchDataRow)
+                .toList();
+
+        int updated = rows.isEmpty()
+                ? 0
+                : updater.inTransaction(session -> updater.updateFullTextSearchData(session, entityClass,
+                        staleEntities.getFirst().strategy(), rows));
+        log.info("Rebuilt FTS ngrams for {} of {} queued [{}] entities", updated, ids.size(), entityClass.getName());
+    }
+
+}
@@ -0,0 +1,257 @@
+package guru.nicks.commons.jpa.service;
+
+import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.domain.FullTextSearchStrategy;
+import guru.nicks.commons.jpa.domain.JpaConstants;
+import guru.nicks.commons.jpa.service.FullTextSearchDataUpdater.FullTextSearchDataRow;
+import guru.nicks.commons.jpa.service.FullTextSearchDataUpdater.StaleEntity;
+import guru.nicks.commons.utils.text.NgramUtilsConfig;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.property.access.spi.Setter;
+import org.hibernate.query.Query;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static guru.nicks.commons.validation.dsl.ValiDsl.check;
+import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
+
+/**
+ * Rebuilds search data of all entities of a class on demand (for example, after {@link NgramUtilsConfig} or
+ * {@link FullTextSearchAwareEntity#getFullTextSearchStrategy()} has been changed), without loading and re-saving them
+ * via JPA. Unlike {@link FullTextSearchRebuildService}, doesn't register any Hibernate event listeners and doesn't
+ * have background threads, so the auto-configuration always creates it.
+ */
+@Slf4j
+public class FullTextSearchReindexService {
+
+    /**
+     * Maximum number of entities processed in a single batch, {@link JpaConstants#INTERNAL_PAGE_SIZE} by default.
+     */
+    public static final String BATCH_SIZE_PROPERTY_NAME = "app.full-text-search.reindex.batch-size";
+
+    private final FullTextSearchDataUpdater updater;
+    private final int batchSize;
+
+    /**
+     * Constructor.
+     *
+     * @param entityManagerFactory entity manager factory
+     * @param jpaInference         JPA inference
+     * @param batchSize            maximum number of entities processed in a single batch
+     */
+    public FullTextSearchReindexService(EntityManagerFactory entityManagerFactory, JpaInference jpaInference,
+            int batchSize) {
+        updater = new FullTextSearchDataUpdater(entityManagerFactory, jpaInference);
+
+        check(batchSize, "batchSize").constraint(value -> value > 0, "must be positive");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Rebuilds search data of all entities of the given class, regardless of their checksums. Entities are read in
+     * batches ordered by ID (keyset pagination, so each batch is fetched equally fast), ngrams of each batch are
+     * computed by the given executor, and the results are written with a JDBC batch update. Each batch is a separate
+     * short transaction, and rows modified concurrently are skipped (their own updates rebuild search data anyway).
+     * <p>
+     * If the entity declares {@link FullTextSearchAwareEntity#getFullTextSearchSourceProperties()}, only the ID, the
+     * checksum, and these properties are selected, so large columns (such as the search data itself) and associations
+     * are not read. Otherwise, whole entities are loaded (read-only).
+     * <p>
+     * Progress is logged and reported to the listener after each batch. If the reindex is interrupted, it can be
+     * resumed by passing {@link ReindexProgress#lastProcessedId()} of the last reported progress.
+     *
+     * @param entityClass      entity class
+     * @param startAfterId     if not {@code null}, only entities having greater IDs are processed
+     * @param executor         computes ngrams (one task per entity), for example a fork-join pool sized for the CPU
+     *                         share the caller can afford; {@code Runnable::run} computes them in the calling thread
+     * @param progressListener called after each batch
+     * @return final progress
+     */
+    public ReindexProgress reindex(Class<? extends FullTextSearchAwareEntity<?>> entityClass,
+            @Nullable Object startAfterId, Executor executor, Consumer<ReindexProgress> progressListener) {
+        checkNotNull(entityClass, "entityClass");
+        checkNotNull(executor, "executor");
+        checkNotNull(progressListener, "progressListener");
+
+        EntityPersister persister = updater.getEntityPersister(entityClass);
+        var prototype = (FullTextSearchAwareEntity<?>) persister.getRepresentationStrategy()
+                .getInstantiator()
+                .instantiate(updater.getSessionFactory());
+        List<String> sourceProperties = List.copyOf(prototype.getFullTextSearchSourceProperties());
+
+        long startNanos = System.nanoTime();
+        var progress = new ReindexProgress(entityClass, 0, 0, startAfterId, Duration.ZERO);
+        log.info("Reindexing FTS data for [{}] after ID '{}', source properties: {}", entityClass.getName(),
+                startAfterId, sourceProperties.isEmpty() ? "<whole entity>" : sourceProperties);
+
+        Object lastId = startAfterId;
+
+        while (true) {
+            Object batchLastId = lastId;
+            List<StaleEntity> entities = updater.inTransaction(session -> sourceProperties.isEmpty()
+                    ? readEntityBatch(session, persister, batchLastId)
+                    : readProjectionBatch(session, persister, sourceProperties, batchLastId));
+
+            if (entities.isEmpty()) {
+                break;
+            }
+
+            // the costly part, CPU-bound - no DB connection is held
+            List<FullTextSearchDataRow> rows = entities.stream()
+                    .map(entity -> CompletableFuture.supplyAsync(() -> updater.toFullTextSearchDataRow(entity),
+                            executor))
+                    .toList()
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+            FullTextSearchStrategy strategy = entities.getFirst().strategy();
+            int updated = updater.inTransaction(session ->
+                    updater.updateFullTextSearchData(session, entityClass, strategy, rows));
+
+            lastId = entities.getLast().id();
+            progress = new ReindexProgress(entityClass, progress.processed() + entities.size(),
+                    progress.updated() + updated, lastId, Duration.ofNanos(System.nanoTime() - startNanos));
+
+            log.info("Reindexed FTS data for {} [{}] entities ({} rows/s), last ID: '{}'", progress.processed(),
+                    entityClass.getName(), String.format(Locale.US, "%.1f", progress.getRowsPerSecond()), lastId);
+            progressListener.accept(progress);
+
+            if (entities.size() < batchSize) {
+                break;
+            }
+        }
+
+        return progress;
+    }
+
+    /**
+     * Reads the next batch of whole entities for {@link #reindex(Class, Object, Executor, Consumer)}.
+     *
+     * @param session   Hibernate session
+     * @param persister entity persister
+     * @param lastId    if not {@code null}, only entities having greater IDs are read
+     * @return entities, ordered by ID
+     */
+    private List<StaleEntity> readEntityBatch(Session session, EntityPersister persister, @Nullable Object lastId) {
+        // entities are not modified via JPA, so they don't need snapshots for dirty checking
+        session.setDefaultReadOnly(true);
+
+        return createBatchQuery(session, persister, "e", persister.getMappedClass(), lastId)
+                .getResultList()
+                .stream()
+                .map(FullTextSearchAwareEntity.class::cast)
+                .map(updater::toStaleEntity)
+                .toList();
+    }
+
+    /**
+     * Reads the next batch of ID, checksum, and source properties for
+     * {@link #reindex(Class, Object, Executor, Consumer)}. The search text is collected from transient entity instances
+     * having only the source properties (and the ID) set.
+     *
+     * @param session          Hibernate session
+     * @param persister        entity persister
+     * @param sourceProperties see {@link FullTextSearchAwareEntity#getFullTextSearchSourceProperties()}
+     * @param lastId           if not {@code null}, only entities having greater IDs are read
+     * @return entities, ordered by ID
+     * @throws IllegalStateException a source property is not a persistent property of the entity
+     */
+    private List<StaleEntity> readProjectionBatch(Session session, EntityPersister persister,
+            List<String> sourceProperties, @Nullable Object lastId) {
+        List<Setter> setters = sourceProperties.stream()
+                .map(propertyName -> Optional.ofNullable(persister.findAttributeMapping(propertyName))
+                        .orElseThrow(() -> new IllegalStateException("Unknown FTS source property '" + propertyName
+                                + "' of " + persister.getEntityName()))
+                        .getPropertyAccess()
+                        .getSetter())
+                .toList();
+
+        String select = Stream.concat(
+                        Stream.of(persister.getIdentifierPropertyName(),
+                                FullTextSearchAwareEntity.Fields.fullTextSearchDataChecksum),
+                        sourceProperties.stream())
+                .map(propertyName -> "e." + propertyName)
+                .collect(Collectors.joining(", "));
+        var sessionImplementor = session.unwrap(SharedSessionContractImplementor.class);
+
+        return createBatchQuery(session, persister, select, Object[].class, lastId)
+                .getResultList()
+                .stream()
+                .map(columns -> {
+                    var entity = (FullTextSearchAwareEntity<?>) persister.getRepresentationStrategy()
+                            .getInstantiator()
+                            .instantiate(updater.getSessionFactory());
+                    persister.setIdentifier(entity, columns[0], sessionImplementor);
+                    entity.setFullTextSearchDataChecksum((String) columns[1]);
+
+                    for (int i = 0; i < setters.size(); i++) {
+                        setters.get(i).set(entity, columns[i + 2]);
+                    }
+
+                    return updater.toStaleEntity(entity);
+                })
+                .toList();
+    }
+
+    private <R> Query<R> createBatchQuery(Session session, EntityPersister persister, String select,
+            Class<R> resultType, @Nullable Object lastId) {
+        String idPropertyName = persister.getIdentifierPropertyName();
+        String where = (lastId == null)
+                ? ""
+                : " WHERE e." + idPropertyName + " > :lastId";
+        Query<R> query = session.createQuery(String.format(Locale.US, "SELECT %s FROM %s e%s ORDER BY e.%s",
+                select, updater.getEntityName(persister.getMappedClass()), where, idPropertyName), resultType);
+
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+
+        return query.setMaxResults(batchSize);
+    }
+
+    /**
+     * Progress of {@link #reindex(Class, Object, Executor, Consumer)}.
+     *
+     * @param entityClass     entity class
+     * @param processed       number of entities processed so far
+     * @param updated         number of rows updated so far (rows modified concurrently are skipped)
+     * @param lastProcessedId ID of the last processed entity - pass it to resume reindexing
+     * @param elapsed         time elapsed since reindexing has started
+     */
+    public record ReindexProgress(
+            Class<?> entityClass,
+            long processed,
+            long updated,
+            @Nullable Object lastProcessedId,
+            Duration elapsed) {
+
+        /**
+         * Calculates processing rate.
+         *
+         * @return number of processed entities per second
+         */
+        public double getRowsPerSecond() {
+            long millis = elapsed.toMillis();
+            return (millis == 0)
+                    ? 0
+                    : processed * 1000.0 / millis;
+        }
+
+    }
+
+}
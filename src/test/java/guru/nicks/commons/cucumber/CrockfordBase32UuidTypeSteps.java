@@ -0,0 +1,173 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.jpa.domain.CrockfordBase32UuidType;
+import guru.nicks.commons.utils.UuidUtils;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RequiredArgsConstructor
+public class CrockfordBase32UuidTypeSteps {
+
+    private static final int COLUMN_INDEX = 1;
+
+    // DI
+    private final TextWorld textWorld;
+
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private PreparedStatement statement;
+    @Mock
+    private SharedSessionContractImplementor session;
+    private AutoCloseable closeableMocks;
+
+    private final CrockfordBase32UuidType type = new CrockfordBase32UuidType();
+    private String valueRead;
+    private UUID originalUuid;
+    private String encodedUuid;
+    private String canonicalValue;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("the DB returns UUID {string}")
+    public void theDbReturnsUuid(String uuid) throws Exception {
+        when(resultSet.getObject(COLUMN_INDEX, UUID.class))
+                .thenReturn(UUID.fromString(uuid));
+    }
+
+    @Given("the DB returns NULL")
+    public void theDbReturnsNull() throws Exception {
+        when(resultSet.getObject(COLUMN_INDEX, UUID.class))
+                .thenReturn(null);
+    }
+
+    @Given("a UUID version {int} encoded by UuidUtils")
+    public void aUuidEncodedByUuidUtils(int version) {
+        originalUuid = (version == 7)
+                ? UuidUtils.generateUuidV7()
+                : UuidUtils.generateUuidV4();
+        encodedUuid = UuidUtils.encodeToCrockfordBase32(originalUuid);
+    }
+
+    @When("the value is read with CrockfordBase32UuidType")
+    public void theValueIsReadWithCrockfordBase32UuidType() throws Exception {
+        valueRead = type.nullSafeGet(resultSet, COLUMN_INDEX, session, null);
+    }
+
+    @When("the value {string} is written with CrockfordBase32UuidType")
+    public void theValueIsWrittenWithCrockfordBase32UuidType(String value) {
+        textWorld.setLastException(catchThrowable(() ->
+                type.nullSafeSet(statement, value, COLUMN_INDEX, session)));
+    }
+
+    @When("the value {string} is canonicalized with CrockfordBase32UuidType")
+    public void theValueIsCanonicalizedWithCrockfordBase32UuidType(String value) {
+        textWorld.setLastException(catchThrowable(() ->
+                canonicalValue = CrockfordBase32UuidType.canonicalize(value)));
+    }
+
+    @When("a null value is written with CrockfordBase32UuidType")
+    public void aNullValueIsWrittenWithCrockfordBase32UuidType() {
+        textWorld.setLastException(catchThrowable(() ->
+                type.nullSafeSet(statement, null, COLUMN_INDEX, session)));
+    }
+
+    @When("the encoded UUID is written with CrockfordBase32UuidType")
+    public void theEncodedUuidIsWrittenWithCrockfordBase32UuidType() throws Exception {
+        type.nullSafeSet(statement, encodedUuid, COLUMN_INDEX, session);
+    }
+
+    @Then("the value read should be {string}")
+    public void theValueReadShouldBe(String expected) {
+        assertThat(valueRead)
+                .as("valueRead")
+                .isEqualTo(expected);
+    }
+
+    @Then("the value read should be null")
+    public void theValueReadShouldBeNull() {
+        assertThat(valueRead)
+                .as("valueRead")
+                .isNull();
+    }
+
+    @Then("the UUID written should be {string}")
+    public void theUuidWrittenShouldBe(String expected) throws Exception {
+        assertThat(getUuidWritten())
+                .as("uuidWritten")
+                .isEqualTo(UUID.fromString(expected));
+    }
+
+    @Then("the UUID written should be the original one")
+    public void theUuidWrittenShouldBeTheOriginalOne() throws Exception {
+        assertThat(getUuidWritten())
+                .as("uuidWritten")
+                .isEqualTo(originalUuid);
+    }
+
+    @Then("the UUID written should be read back as the same encoded value")
+    public void theUuidWrittenShouldBeReadBackAsTheSameEncodedValue() throws Exception {
+        when(resultSet.getObject(COLUMN_INDEX, UUID.class))
+                .thenReturn(getUuidWritten());
+
+        assertThat(type.nullSafeGet(resultSet, COLUMN_INDEX, session, null))
+                .as("valueRead")
+                .isEqualTo(encodedUuid);
+    }
+
+    @Then("the canonical value should be {string}")
+    public void theCanonicalValueShouldBe(String expected) {
+        assertThat(canonicalValue)
+                .as("canonicalValue")
+                .isEqualTo(expected);
+    }
+
+    @Then("NULL should be written")
+    public void nullShouldBeWritten() throws Exception {
+        verify(statement).setNull(COLUMN_INDEX, Types.OTHER);
+        verify(statement, never()).setObject(anyInt(), any());
+    }
+
+    private UUID getUuidWritten() throws Exception {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(statement).setObject(eq(COLUMN_INDEX), captor.capture());
+
+        assertThat(captor.getValue())
+                .as("valueWritten")
+                .isInstanceOf(UUID.class);
+        return (UUID) captor.getValue();
+    }
+
+}
@@ -0,0 +1,207 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.domain.DbTestEntity;
+import guru.nicks.commons.cucumber.domain.TestDatabase;
+import guru.nicks.commons.cucumber.world.JpaWorld;
+
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Step definitions for testing {@link guru.nicks.commons.jpa.impl.EnhancedJpaRepositoryImpl} against
+ * {@link TestDatabase}.
+ */
+@RequiredArgsConstructor
+public class EnhancedJpaRepositorySteps {
+
+    /**
+     * Placeholders of an {@code IN (...)} list in the SQL generated by Hibernate.
+     */
+    private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(([?,\\s]+)\\)", Pattern.CASE_INSENSITIVE);
+
+    // DI
+    private final JpaWorld jpaWorld;
+
+    private long preparedStatementCount;
+    private String[] executedQueries;
+    private List<DbTestEntity> foundEntities;
+    private List<List<DbTestEntity>> savedBatches;
+    private List<Integer> managedEntityCounts;
+    private int executorTaskCount;
+
+    @When("{int} new entities are inserted in batches of {int}")
+    public void newEntitiesAreInsertedInBatchesOf(int count, int batchSize) {
+        List<DbTestEntity> entities = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            entities.add(DbTestEntity.builder()
+                    .id(jpaWorld.getStoredEntities().size() + i + 1L)
+                    .name("inserted")
+                    .build());
+        }
+
+        Statistics statistics = TestDatabase.getSessionFactory().getStatistics();
+        statistics.clear();
+        jpaWorld.getDbTestEntityRepository().insertAllInBatchesAndCount(entities, batchSize);
+        // each JDBC batch is a single prepared statement, whereas without batching each entity needs its own one
+        preparedStatementCount = statistics.getPrepareStatementCount();
+    }
+
+    @When("{int} new entities are streamed to bulk save in batches of {int}")
+    public void newEntitiesAreStreamedToBulkSaveInBatchesOf(int count, int batchSize) {
+        PersistenceContext persistenceContext = jpaWorld.getEntityManager()
+                .unwrap(SessionImplementor.class)
+                .getPersistenceContext();
+        savedBatches = new ArrayList<>();
+        managedEntityCounts = new ArrayList<>();
+
+        // entities are created one by one, as they're consumed
+        Stream<DbTestEntity> entities = LongStream.rangeClosed(1, count)
+                .mapToObj(id -> DbTestEntity.builder()
+                        .id(id)
+                        .name("streamed")
+                        .build());
+
+        jpaWorld.getDbTestEntityRepository().saveAllAndFlushInBatches(entities, batchSize, batch -> {
+            savedBatches.add(batch);
+            managedEntityCounts.add(persistenceContext.getNumberOfManagedEntities());
+        });
+    }
+
+    @When("entities are found by IDs {string} preserving their order")
+    public void entitiesAreFoundByIdsPreservingTheirOrder(String ids) {
+        Statistics statistics = TestDatabase.getSessionFactory().getStatistics();
+        statistics.clear();
+        TestDatabase.clearPreparedSql();
+        foundEntities = jpaWorld.getDbTestEntityRepository().findAllByIdPreserveOrder(parseIds(ids));
+        preparedStatementCount = statistics.getPrepareStatementCount();
+        executedQueries = statistics.getQueries();
+    }
+
+    @When("entities are found by IDs {long} down to {long} preserving their order, on an executor")
+    public void entitiesAreFoundByIdsDownToPreservingTheirOrderOnAnExecutor(long fromId, long toId) {
+        // the test entity manager is not thread-safe, so tasks run in the calling thread, but are counted
+        Executor executor = task -> {
+            executorTaskCount++;
+            task.run();
+        };
+
+        TestDatabase.clearPreparedSql();
+        foundEntities = jpaWorld.getDbTestEntityRepository()
+                .findAllByIdPreserveOrder(rangeDescending(fromId, toId), executor);
+    }
+
+    @Then("found entities should have IDs {long} down to {long}")
+    public void foundEntitiesShouldHaveIdsDownTo(long fromId, long toId) {
+        assertThat(foundEntities)
+                .as("foundEntities")
+                .extracting(DbTestEntity::getId)
+                .containsExactlyElementsOf(rangeDescending(fromId, toId));
+    }
+
+    @Then("{int} tasks should have been submitted to the executor")
+    public void tasksShouldHaveBeenSubmittedToTheExecutor(int count) {
+        assertThat(executorTaskCount)
+                .as("executorTaskCount")
+                .isEqualTo(count);
+    }
+
+    @Then("IN lists of sizes {string} should have been queried")
+    public void inListsOfSizesShouldHaveBeenQueried(String sizes) {
+        List<Integer> inListSizes = TestDatabase.getPreparedSql().stream()
+                .map(IN_LIST::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> StringUtils.countMatches(matcher.group(1), '?'))
+                .toList();
+
+        assertThat(inListSizes)
+                .as("inListSizes")
+                .containsExactlyElementsOf(parseInts(sizes));
+    }
+
+    @Then("found entities should have IDs {string}")
+    public void foundEntitiesShouldHaveIds(String ids) {
+        assertThat(foundEntities)
+                .as("foundEntities")
+                .extracting(DbTestEntity::getId)
+                .containsExactlyElementsOf(parseIds(ids));
+    }
+
+    @Then("IDs should have been bound as a single array")
+    public void idsShouldHaveBeenBoundAsSingleArray() {
+        assertThat(executedQueries)
+                .as("executedQueries")
+                .singleElement()
+                .asString()
+                .contains("FUNCTION('any', :ids)");
+    }
+
+    @Then("saved batches should have sizes {string}")
+    public void savedBatchesShouldHaveSizes(String sizes) {
+        assertThat(savedBatches)
+                .as("savedBatches")
+                .extracting(List::size)
+                .containsExactlyElementsOf(parseInts(sizes));
+    }
+
+    @Then("only the entities of the current batch should have been managed when each batch was saved")
+    public void onlyTheEntitiesOfTheCurrentBatchShouldHaveBeenManaged() {
+        assertThat(managedEntityCounts)
+                .as("managedEntityCounts")
+                .containsExactlyElementsOf(savedBatches.stream()
+                        .map(List::size)
+                        .toList());
+    }
+
+    @Then("no saved entities should be managed")
+    public void noSavedEntitiesShouldBeManaged() {
+        assertThat(savedBatches.stream().flatMap(List::stream))
+                .as("saved entities")
+                .noneMatch(jpaWorld.getEntityManager()::contains);
+    }
+
+    @Then("{long} SQL statements should have been prepared")
+    public void sqlStatementsShouldHaveBeenPrepared(long count) {
+        assertThat(preparedStatementCount)
+                .as("preparedStatementCount")
+                .isEqualTo(count);
+    }
+
+    private static List<Long> parseIds(String ids) {
+        return Arrays.stream(ids.split(","))
+                .map(String::strip)
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    private static List<Long> rangeDescending(long fromId, long toId) {
+        return LongStream.rangeClosed(toId, fromId)
+                .map(id -> fromId + toId - id)
+                .boxed()
+                .toList();
+    }
+
+    private static List<Integer> parseInts(String values) {
+        return Arrays.stream(values.split(","))
+                .map(String::strip)
+                .map(Integer::valueOf)
+                .toList();
+    }
+
+}
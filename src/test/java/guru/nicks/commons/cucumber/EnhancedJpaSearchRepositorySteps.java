@@ -0,0 +1,370 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.domain.DbTestEntity;
+import guru.nicks.commons.cucumber.domain.FtsDbTestEntity;
+import guru.nicks.commons.cucumber.domain.QDbTestEntity;
+import guru.nicks.commons.cucumber.domain.QFtsDbTestEntity;
+import guru.nicks.commons.cucumber.domain.TestDatabase;
+import guru.nicks.commons.cucumber.world.JpaWorld;
+import guru.nicks.commons.jpa.impl.EnhancedJpaSearchRepositoryImpl;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.querydsl.core.types.Predicate;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Step definitions for testing {@link guru.nicks.commons.jpa.impl.EnhancedJpaSearchRepositoryImpl} against
+ * {@link TestDatabase}.
+ */
+@RequiredArgsConstructor
+public class EnhancedJpaSearchRepositorySteps {
+
+    // DI
+    private final JpaWorld jpaWorld;
+
+    private DbTestEntity callerEntity;
+    private List<DbTestEntity> streamedEntities;
+    private List<Long> scrolledIds;
+    private List<DbTestEntity> foundEntities;
+    private List<FtsDbTestEntity> foundFullTextSearchableEntities;
+    private List<Integer> foundEntityCounts;
+    private Slice<?> slice;
+    private Page<Long> projectedIds;
+    private CacheStats fullTextSearchConditionCacheStats;
+
+    @Given("stored entity {long} is loaded by the caller")
+    public void storedEntityIsLoadedByTheCaller(long id) {
+        callerEntity = jpaWorld.getEntityManager().find(DbTestEntity.class, id);
+    }
+
+    @Given("the stored entities have created dates:")
+    public void theStoredEntitiesHaveCreatedDates(List<Map<String, String>> rows) {
+        var entityManager = jpaWorld.getEntityManager();
+
+        // bulk update bypasses @PreUpdate which would overwrite the dates
+        for (Map<String, String> row : rows) {
+            entityManager.createQuery("UPDATE " + DbTestEntity.class.getSimpleName()
+                            + " e SET e.createdDate = :createdDate WHERE e.id = :id")
+                    .setParameter("createdDate", Optional.ofNullable(row.get("createdDate"))
+                            .map(Instant::parse)
+                            .orElse(null))
+                    .setParameter("id", Long.parseLong(row.get("id")))
+                    .executeUpdate();
+        }
+
+        entityManager.clear();
+    }
+
+    @When("entities named {string} are streamed {int} at a time")
+    public void entitiesNamedAreStreamedAtATime(String name, int fetchSize) {
+        streamEntities(name, fetchSize, null);
+    }
+
+    @When("entities named {string} are streamed {int} at a time, renaming the caller's entity to {string} meanwhile")
+    public void entitiesNamedAreStreamedAtATimeRenamingTheCallersEntity(String name, int fetchSize, String newName) {
+        streamEntities(name, fetchSize, newName);
+    }
+
+    @When("entities named {string} are scrolled {int} at a time")
+    public void entitiesNamedAreScrolledAtATime(String name, int limit) {
+        var repository = jpaWorld.getDbTestEntityRepository();
+        scrolledIds = new ArrayList<>();
+        String continuationToken = null;
+
+        // the number of windows is limited in case pagination loops
+        for (int i = 0; i < 100; i++) {
+            String token = continuationToken;
+            Window<DbTestEntity> window = repository.scrollByFilter(name, () -> null, () -> token, limit,
+                    QDbTestEntity.dbTestEntity, () -> null);
+            window.forEach(entity -> scrolledIds.add(entity.getId()));
+
+            if (!window.hasNext()) {
+                return;
+            }
+
+            continuationToken = repository.createContinuationToken(window);
+        }
+    }
+
+    @When("entities with ID greater than {long} and {string} in their JSON names are searched for")
+    public void entitiesWithIdGreaterThanAndInTheirJsonNamesAreSearchedFor(long id, String value) {
+        var repository = jpaWorld.getDbTestEntityRepository();
+        // the ID is the first query parameter, the JSON value is the second one
+        Predicate predicate = QDbTestEntity.dbTestEntity.id.gt(id)
+                .and(repository.createJsonContainsPredicate(DbTestEntity.Fields.name, value));
+
+        foundEntities = new ArrayList<>();
+        repository.findAll(predicate, QDbTestEntity.dbTestEntity.id.asc()).forEach(foundEntities::add);
+    }
+
+    @When("full-text searchable entities having {string} in their names are searched for {string}")
+    public void fullTextSearchableEntitiesHavingInTheirNamesAreSearchedFor(String filter, String fullTextSearch) {
+        // the filter is the first query parameter, the search text is the second (condition) and the third (rank) one
+        foundFullTextSearchableEntities = jpaWorld.getFtsDbTestEntityRepository()
+                .findByFilter(filter, () -> fullTextSearch, PageRequest.of(0, 10), QFtsDbTestEntity.ftsDbTestEntity,
+                        () -> null)
+                .getContent();
+    }
+
+    @When("page {int} of full-text searchable entities is searched for {string}, {int} entities per page")
+    public void pageOfFullTextSearchableEntitiesIsSearchedFor(int pageNumber, String fullTextSearch, int pageSize) {
+        TestDatabase.clearPreparedSql();
+        foundFullTextSearchableEntities = jpaWorld.getFtsDbTestEntityRepository()
+                .findByFilter(null, () -> fullTextSearch, PageRequest.of(pageNumber, pageSize),
+                        QFtsDbTestEntity.ftsDbTestEntity, () -> null)
+                .getContent();
+    }
+
+    @When("full-text searchable entities are searched for each of:")
+    public void fullTextSearchableEntitiesAreSearchedForEachOf(List<String> fullTextSearches) {
+        // the cache is shared by all scenarios, so only the changes made by this step are checked
+        CacheStats statsBefore = EnhancedJpaSearchRepositoryImpl.getFullTextSearchConditionCacheStats();
+        foundEntityCounts = new ArrayList<>();
+
+        for (String fullTextSearch : fullTextSearches) {
+            foundEntityCounts.add(jpaWorld.getFtsDbTestEntityRepository()
+                    .findByFilter(null, () -> fullTextSearch, PageRequest.of(0, 10),
+                            QFtsDbTestEntity.ftsDbTestEntity, () -> null)
+                    .getNumberOfElements());
+        }
+
+        fullTextSearchConditionCacheStats = EnhancedJpaSearchRepositoryImpl.getFullTextSearchConditionCacheStats()
+                .minus(statsBefore);
+    }
+
+    @When("entities named {string} are searched for {int} times")
+    public void entitiesNamedAreSearchedForTimes(String name, int times) {
+        foundEntityCounts = new ArrayList<>();
+
+        for (int i = 0; i < times; i++) {
+            foundEntityCounts.add(jpaWorld.getDbTestEntityRepository()
+                    .findByFilter(name, PageRequest.of(0, 10))
+                    .getNumberOfElements());
+        }
+    }
+
+    @When("slice {int} of entities named {string} is requested, {int} entities per slice")
+    public void sliceOfEntitiesNamedIsRequested(int sliceNumber, String name, int sliceSize) {
+        TestDatabase.clearPreparedSql();
+        slice = jpaWorld.getDbTestEntityRepository().findSliceByFilter(name, () -> null,
+                PageRequest.of(sliceNumber, sliceSize, Sort.by(DbTestEntity.Fields.id)), QDbTestEntity.dbTestEntity,
+                () -> null);
+    }
+
+    @When("IDs of entities named {string} are selected, page {int} of {int} IDs sorted descending")
+    public void idsOfEntitiesNamedAreSelected(String name, int pageNumber, int pageSize) {
+        projectedIds = jpaWorld.getDbTestEntityRepository().findByFilter(name, () -> null,
+                PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, DbTestEntity.Fields.id)),
+                QDbTestEntity.dbTestEntity, QDbTestEntity.dbTestEntity.id);
+    }
+
+    @When("an unpaged slice of full-text searchable entities is requested for {string}")
+    public void anUnpagedSliceOfFullTextSearchableEntitiesIsRequested(String fullTextSearch) {
+        requestUnpagedSlice(fullTextSearch, Sort.unsorted());
+    }
+
+    @When("an unpaged slice of full-text searchable entities is requested for {string}, sorted by name")
+    public void anUnpagedSliceOfFullTextSearchableEntitiesIsRequestedSortedByName(String fullTextSearch) {
+        requestUnpagedSlice(fullTextSearch, Sort.by(FtsDbTestEntity.Fields.name));
+    }
+
+    @When("the caller's entity is renamed to {string}")
+    public void theCallersEntityIsRenamedTo(String newName) {
+        callerEntity.setName(newName);
+    }
+
+    @Then("{int} entities should have been streamed")
+    public void entitiesShouldHaveBeenStreamed(int count) {
+        assertThat(streamedEntities)
+                .as("streamedEntities")
+                .hasSize(count);
+    }
+
+    @Then("the first {int} streamed entities should be detached")
+    public void theFirstStreamedEntitiesShouldBeDetached(int count) {
+        assertThat(streamedEntities.subList(0, count))
+                .as("detached streamed entities")
+                .noneMatch(jpaWorld.getEntityManager()::contains);
+    }
+
+    @Then("the caller's entity should be managed")
+    public void theCallersEntityShouldBeManaged() {
+        assertThat(jpaWorld.getEntityManager().contains(callerEntity))
+                .as("caller's entity is managed")
+                .isTrue();
+    }
+
+    @Then("{int} entities should have been found each time")
+    public void entitiesShouldHaveBeenFoundEachTime(int count) {
+        assertThat(foundEntityCounts)
+                .as("foundEntityCounts")
+                .isNotEmpty()
+                .containsOnly(count);
+    }
+
+    @Then("the full-text search condition cache should have had {long} miss(es) and {long} hit(s)")
+    public void theFullTextSearchConditionCacheShouldHaveHadMissesAndHits(long missCount, long hitCount) {
+        assertThat(fullTextSearchConditionCacheStats)
+                .as("fullTextSearchConditionCacheStats")
+                .extracting(CacheStats::missCount, CacheStats::hitCount)
+                .containsExactly(missCount, hitCount);
+    }
+
+    @Then("the entities found by JSON should have IDs {string}")
+    public void theEntitiesFoundByJsonShouldHaveIds(String ids) {
+        assertThat(foundEntities.stream()
+                .map(entity -> String.valueOf(entity.getId()))
+                .collect(Collectors.joining(", ")))
+                .as("foundEntities")
+                .isEqualTo(ids);
+    }
+
+    @Then("the full-text searchable entities found should be named:")
+    public void theFullTextSearchableEntitiesFoundShouldBeNamed(List<String> names) {
+        assertThat(foundFullTextSearchableEntities)
+                .as("foundFullTextSearchableEntities")
+                .extracting(FtsDbTestEntity::getName)
+                .containsExactlyElementsOf(names);
+    }
+
+    @Then("the selected IDs should be {string} out of {long}")
+    public void theSelectedIdsShouldBeOutOf(String ids, long totalCount) {
+        assertThat(projectedIds.getContent().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ")))
+                .as("projectedIds")
+                .isEqualTo(ids);
+        assertThat(projectedIds.getTotalElements())
+                .as("total elements")
+                .isEqualTo(totalCount);
+    }
+
+    @Then("no entities should be managed")
+    public void noEntitiesShouldBeManaged() {
+        assertThat(jpaWorld.getEntityManager()
+                .unwrap(SessionImplementor.class)
+                .getPersistenceContext()
+                .getNumberOfManagedEntities())
+                .as("managed entities")
+                .isZero();
+    }
+
+    @Then("only IDs should have been searched for, then entities should have been fetched by them")
+    public void onlyIdsShouldHaveBeenSearchedForThenEntitiesShouldHaveBeenFetchedByThem() {
+        List<String> queries = TestDatabase.getPreparedSql().stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> !sql.contains("count("))
+                .toList();
+
+        assertThat(queries)
+                .as("non-COUNT queries")
+                .hasSize(2);
+        // the select list of the ranked query has no entity columns except the ID
+        assertThat(queries.get(0).substring(0, queries.get(0).indexOf(" from ")))
+                .as("ranked query select list")
+                .contains(".id")
+                .doesNotContain(".name");
+        assertThat(queries.get(1))
+                .as("entity query")
+                .contains(".name")
+                .containsPattern("\\bin\\s*\\(")
+                .doesNotContain("order by");
+    }
+
+    @Then("the slice should contain entities with IDs {string}")
+    public void theSliceShouldContainEntitiesWithIds(String ids) {
+        assertThat(slice.getContent().stream()
+                .map(entity -> String.valueOf(((DbTestEntity) entity).getId()))
+                .collect(Collectors.joining(", ")))
+                .as("slice content")
+                .isEqualTo(ids);
+    }
+
+    @Then("the slice should contain full-text searchable entities named:")
+    public void theSliceShouldContainFullTextSearchableEntitiesNamed(List<String> names) {
+        assertThat(slice.getContent())
+                .as("slice content")
+                .extracting(entity -> ((FtsDbTestEntity) entity).getName())
+                .containsExactlyElementsOf(names);
+    }
+
+    @Then("the slice should have a next one: {word}")
+    public void theSliceShouldHaveANextOne(String hasNext) {
+        assertThat(slice.hasNext())
+                .as("hasNext")
+                .isEqualTo(Boolean.parseBoolean(hasNext));
+    }
+
+    @Then("the slice should be unpaged and sorted by {string}")
+    public void theSliceShouldBeUnpagedAndSortedBy(String property) {
+        assertThat(slice.getPageable().isUnpaged())
+                .as("unpaged")
+                .isTrue();
+        assertThat(slice.getPageable().getSort().getOrderFor(property))
+                .as("sort order for " + property)
+                .isNotNull();
+    }
+
+    @Then("no COUNT query should have been run")
+    public void noCountQueryShouldHaveBeenRun() {
+        assertThat(TestDatabase.getPreparedSql())
+                .as("preparedSql")
+                .isNotEmpty()
+                .noneMatch(sql -> sql.toLowerCase(Locale.ROOT).contains("count("));
+    }
+
+    @Then("the scrolled entity IDs should be {string}")
+    public void theScrolledEntityIdsShouldBe(String ids) {
+        assertThat(scrolledIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ")))
+                .as("scrolledIds")
+                .isEqualTo(ids);
+    }
+
+    private void requestUnpagedSlice(String fullTextSearch, Sort sort) {
+        slice = jpaWorld.getFtsDbTestEntityRepository().findSliceByFilter(null, () -> fullTextSearch,
+                Pageable.unpaged(sort), QFtsDbTestEntity.ftsDbTestEntity, () -> null);
+    }
+
+    /**
+     * Streams entities, renaming {@link #callerEntity} (if {@code newName} is not {@code null}) while processing the
+     * first one - i.e. before the persistence context used to be cleared.
+     */
+    private void streamEntities(String name, int fetchSize, String newName) {
+        streamedEntities = new ArrayList<>();
+
+        try (Stream<DbTestEntity> stream = jpaWorld.getDbTestEntityRepository().streamByFilter(name, () -> null,
+                Sort.by(DbTestEntity.Fields.id), fetchSize, QDbTestEntity.dbTestEntity, () -> null)) {
+            stream.forEach(entity -> {
+                if ((newName != null) && streamedEntities.isEmpty()) {
+                    callerEntity.setName(newName);
+                }
+
+                streamedEntities.add(entity);
+            });
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Step definitions for testing {@link EnhancedSqlDialect}.
+ */
+public class EnhancedSqlDialectSteps {
+
+    private EnhancedSqlDialect dialect;
+    private String query;
+
+    @Given("the {string} SQL dialect")
+    public void theSqlDialect(String dialectName) {
+        dialect = EnhancedSqlDialect.valueOf(dialectName);
+    }
+
+    @When("a prefix full-text search query is created for words {string}")
+    public void aPrefixFullTextSearchQueryIsCreatedForWords(String words) {
+        List<String> wordList = StringUtils.isEmpty(words)
+                ? List.of()
+                : Arrays.asList(words.split(","));
+        query = dialect.createPrefixFullTextSearchQuery(wordList);
+    }
+
+    @Then("the full-text search query should be {string}")
+    public void theFullTextSearchQueryShouldBe(String expectedQuery) {
+        assertThat(query)
+                .as("query")
+                .isEqualTo(expectedQuery);
+    }
+
+}
@@ -0,0 +1,81 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.jpa.impl.EnhancedSqlFunctionContributor;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.spi.TypeConfiguration;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Step definitions for testing {@link EnhancedSqlFunctionContributor}.
+ */
+public class EnhancedSqlFunctionContributorSteps {
+
+    @Mock
+    private FunctionContributions functionContributions;
+    @Mock
+    private SqmFunctionRegistry functionRegistry;
+    @Mock
+    private TypeConfiguration typeConfiguration;
+    @Mock
+    private BasicTypeRegistry basicTypeRegistry;
+    private AutoCloseable closeableMocks;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("HQL functions are contributed for the {string} Hibernate dialect")
+    public void hqlFunctionsAreContributedForTheHibernateDialect(String dialectName) {
+        Dialect dialect = switch (dialectName) {
+            case "postgres" -> new PostgreSQLDialect();
+            case "h2" -> new H2Dialect();
+            default -> throw new IllegalArgumentException("Unknown dialect: " + dialectName);
+        };
+
+        when(functionContributions.getDialect())
+                .thenReturn(dialect);
+        when(functionContributions.getFunctionRegistry())
+                .thenReturn(functionRegistry);
+        when(functionContributions.getTypeConfiguration())
+                .thenReturn(typeConfiguration);
+        when(typeConfiguration.getBasicTypeRegistry())
+                .thenReturn(basicTypeRegistry);
+
+        new EnhancedSqlFunctionContributor().contributeFunctions(functionContributions);
+    }
+
+    @Then("HQL function {string} should call {string}")
+    public void hqlFunctionShouldCall(String functionName, String pattern) {
+        var patternCaptor = ArgumentCaptor.forClass(String.class);
+        verify(functionRegistry).registerPattern(eq(functionName), patternCaptor.capture(), any());
+
+        assertThat(patternCaptor.getValue())
+                .as("pattern")
+                .isEqualTo(pattern);
+    }
+
+}
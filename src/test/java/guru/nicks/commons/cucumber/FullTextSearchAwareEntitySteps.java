@@ -2,6 +2,8 @@ package guru.nicks.commons.cucumber;
 
 import guru.nicks.commons.cucumber.domain.TestEntity;
 import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.domain.FullTextSearchStrategy;
+import guru.nicks.commons.utils.crypto.ChecksumUtils;
 import guru.nicks.commons.utils.text.NgramUtils;
 
 import io.cucumber.datatable.DataTable;
@@ -34,6 +36,8 @@ public class FullTextSearchAwareEntitySteps {
 
     private String previousFullTextSearchData;
     private String previousChecksum;
+    private String builtFullTextSearchData;
+    private int maxFullTextSearchDataLength;
     private long operationStartTime;
     private long operationEndTime;
     private SequencedSet<String> createdChunks;
@@ -138,6 +142,36 @@ public class FullTextSearchAwareEntitySteps {
         field.set(entity, newValue);
     }
 
+    @Given("the entity has a legacy search data checksum")
+    public void theEntityHasALegacySearchDataChecksum() {
+        entity.setFullTextSearchDataChecksum(ChecksumUtils.computeJsonChecksum(entity.collectFullTextSearchText()));
+    }
+
+    @Then("the search data checksum should be upgraded")
+    public void theSearchDataChecksumShouldBeUpgraded() {
+        assertThat(entity.getFullTextSearchDataChecksum())
+                .as("Search data checksum")
+                .isNotEqualTo(previousChecksum)
+                .isEqualTo(FullTextSearchAwareEntity.computeFullTextSearchChecksum(entity.collectFullTextSearchText()));
+    }
+
+    @When("ngram rebuild is deferred for the entity")
+    public void ngramRebuildIsDeferredForTheEntity() {
+        entity.setFullTextSearchRebuildDeferred(true);
+    }
+
+    @Then("the full-text search data should be marked stale")
+    public void theFullTextSearchDataShouldBeMarkedStale() {
+        assertThat(entity.isFullTextSearchDataStale())
+                .as("Full-text search data should be stale")
+                .isTrue();
+
+        assertThat(entity.getFullTextSearchDataChecksum())
+                .as("Search data checksum")
+                .isEqualTo(FullTextSearchAwareEntity.STALE_CHECKSUM_PREFIX
+                        + FullTextSearchAwareEntity.computeFullTextSearchChecksum(entity.collectFullTextSearchText()));
+    }
+
     @Then("the full-text search data should contain ngrams from {string}")
     public void theFullTextSearchDataShouldContainNgramsFrom(String searchData) {
         if ("null".equals(searchData)) {
@@ -296,6 +330,53 @@ public class FullTextSearchAwareEntitySteps {
         }
     }
 
+    @When("full-text search data is built with length limit {int}")
+    public void fullTextSearchDataIsBuiltWithLengthLimit(int maxLength) {
+        maxFullTextSearchDataLength = maxLength;
+        builtFullTextSearchData = FullTextSearchAwareEntity.buildFullTextSearchData(
+                entity.collectFullTextSearchText(), entity.getNgramUtilsConfig(), maxLength);
+    }
+
+    @When("full-text search data is built with strategy {string} and length limit {int}")
+    public void fullTextSearchDataIsBuiltWithStrategyAndLengthLimit(String strategy, int maxLength) {
+        maxFullTextSearchDataLength = maxLength;
+        builtFullTextSearchData = FullTextSearchAwareEntity.buildFullTextSearchData(
+                entity.collectFullTextSearchText(), entity.getNgramUtilsConfig(),
+                FullTextSearchStrategy.valueOf(strategy), maxLength);
+    }
+
+    @Then("the built search data should be {string}")
+    public void theBuiltSearchDataShouldBe(String expected) {
+        assertThat(builtFullTextSearchData)
+                .as("Built full-text search data")
+                .isEqualTo(expected);
+    }
+
+    @Then("the built search data should equal the chunks joined within the length limit")
+    public void theBuiltSearchDataShouldEqualTheChunksJoinedWithinTheLengthLimit() {
+        var expected = new StringBuilder();
+
+        for (String chunk : FullTextSearchAwareEntity.createFullTextSearchChunks(
+                entity.collectFullTextSearchText(), entity.getNgramUtilsConfig())) {
+            int separatorLength = expected.isEmpty() ? 0 : 1;
+
+            if (expected.length() + separatorLength + chunk.length() > maxFullTextSearchDataLength) {
+                break;
+            }
+
+            if (separatorLength > 0) {
+                expected.append(' ');
+            }
+
+            expected.append(chunk);
+        }
+
+        assertThat(builtFullTextSearchData)
+                .as("Built full-text search data")
+                .isEqualTo(expected.toString())
+                .hasSizeLessThanOrEqualTo(maxFullTextSearchDataLength);
+    }
+
     @Then("no chunks should contain SQL injection characters")
     public void noChunksShouldContainSqlInjectionCharacters() {
         for (String chunk : createdChunks) {
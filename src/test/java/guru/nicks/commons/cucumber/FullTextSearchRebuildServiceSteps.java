@@ -0,0 +1,225 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.domain.FtsDbTestEntity;
+import guru.nicks.commons.cucumber.domain.TestDatabase;
+import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.service.FullTextSearchRebuildService;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.hibernate.Hibernate;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Step definitions for testing {@link FullTextSearchRebuildService} against {@link TestDatabase}.
+ */
+public class FullTextSearchRebuildServiceSteps {
+
+    @Mock
+    private JpaInference jpaInference;
+    @Mock
+    private Environment environment;
+    private AutoCloseable closeableMocks;
+
+    private FullTextSearchRebuildService service;
+    private int queuedCount;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        FtsDbTestEntity.setNextTextCollectionListener(null);
+        closeableMocks.close();
+    }
+
+    @Given("the full-text search rebuild service runs tasks immediately")
+    public void theFullTextSearchRebuildServiceRunsTasksImmediately() {
+        when(jpaInference.getSqlDialect())
+                .thenReturn(EnhancedSqlDialect.POSTGRES);
+        when(jpaInference.getTableName(FtsDbTestEntity.class))
+                .thenReturn("fts_db_test_entity");
+        when(jpaInference.getColumnName(FtsDbTestEntity.class,
+                FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY))
+                .thenReturn("full_text_search_data");
+        when(jpaInference.getColumnName(FtsDbTestEntity.class,
+                FullTextSearchAwareEntity.Fields.fullTextSearchDataChecksum))
+                .thenReturn("full_text_search_data_checksum");
+        when(jpaInference.getColumnName(FtsDbTestEntity.class, FtsDbTestEntity.Fields.id))
+                .thenReturn("id");
+
+        // tasks run in the calling thread, so their results can be checked right away
+        service = new FullTextSearchRebuildService(TestDatabase.getSessionFactory(), jpaInference, Runnable::run, 10);
+    }
+
+    @Given("{int} full-text searchable entities named {string} are stored in DB")
+    public void fullTextSearchableEntitiesNamedAreStoredInDb(int count, String name) {
+        TestDatabase.inNewTransaction(entityManager -> {
+            for (int i = 1; i <= count; i++) {
+                entityManager.persist(FtsDbTestEntity.builder()
+                        .id(toId(i))
+                        .name(name)
+                        .build());
+            }
+
+            return null;
+        });
+    }
+
+    @Given("full-text searchable entities having the following names are stored in DB and indexed:")
+    public void fullTextSearchableEntitiesAreStoredInDbAndIndexed(List<String> names) {
+        TestDatabase.inNewTransaction(entityManager -> {
+            for (int i = 0; i < names.size(); i++) {
+                entityManager.persist(FtsDbTestEntity.builder()
+                        .id(toId(i + 1))
+                        .name(names.get(i))
+                        .build());
+            }
+
+            return null;
+        });
+
+        service.rebuildAllStale(FtsDbTestEntity.class);
+    }
+
+    @Given("full-text searchable entity {int} will be modified concurrently while its search text is collected")
+    public void fullTextSearchableEntityWillBeModifiedConcurrently(int index) {
+        // bulk update bypasses entity callbacks, so the checksum is exactly as set here
+        FtsDbTestEntity.setNextTextCollectionListener(() -> TestDatabase.inNewTransaction(entityManager ->
+                entityManager.createQuery("UPDATE " + FtsDbTestEntity.class.getSimpleName()
+                                + " e SET e.name = 'concurrent', e.fullTextSearchDataChecksum = 'stale:concurrent'"
+                                + " WHERE e.id = :id")
+                        .setParameter("id", toId(index))
+                        .executeUpdate()));
+    }
+
+    @When("rebuild of full-text searchable entity {int} is requested")
+    public void rebuildOfFullTextSearchableEntityIsRequested(int index) {
+        service.rebuildLater(FtsDbTestEntity.class, toId(index));
+    }
+
+    @When("rebuild of all stale full-text searchable entities is requested")
+    public void rebuildOfAllStaleFullTextSearchableEntitiesIsRequested() {
+        queuedCount = service.rebuildAllStale(FtsDbTestEntity.class);
+    }
+
+    @Then("{int} entities should have been queued for rebuild")
+    public void entitiesShouldHaveBeenQueuedForRebuild(int count) {
+        assertThat(queuedCount)
+                .as("queuedCount")
+                .isEqualTo(count);
+    }
+
+    @Then("full-text searchable entity {int} should have stale search data")
+    public void fullTextSearchableEntityShouldHaveStaleSearchData(int index) {
+        assertThat(findEntity(index).isFullTextSearchDataStale())
+                .as("isFullTextSearchDataStale")
+                .isTrue();
+    }
+
+    @Then("full-text searchable entity {int} should not have stale search data")
+    public void fullTextSearchableEntityShouldNotHaveStaleSearchData(int index) {
+        assertThat(findEntity(index).isFullTextSearchDataStale())
+                .as("isFullTextSearchDataStale")
+                .isFalse();
+    }
+
+    @Then("full-text searchable entities {int} to {int} should have stale search data")
+    public void fullTextSearchableEntitiesShouldHaveStaleSearchData(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i <= toIndex; i++) {
+            fullTextSearchableEntityShouldHaveStaleSearchData(i);
+        }
+    }
+
+    @Then("full-text searchable entities {int} to {int} should not have stale search data")
+    public void fullTextSearchableEntitiesShouldNotHaveStaleSearchData(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i <= toIndex; i++) {
+            fullTextSearchableEntityShouldNotHaveStaleSearchData(i);
+        }
+    }
+
+    @Then("full-text searchable entity {int} should have search data containing {string}")
+    public void fullTextSearchableEntityShouldHaveSearchDataContaining(int index, String text) {
+        assertThat(findSearchData(index))
+                .as("fullTextSearchData")
+                .contains(text);
+    }
+
+    @Then("full-text searchable entity {int} should have no search data")
+    public void fullTextSearchableEntityShouldHaveNoSearchData(int index) {
+        assertThat(findSearchData(index))
+                .as("fullTextSearchData")
+                .isNull();
+    }
+
+    @Then("full-text searchable entity {int} should be loaded without search data until it's accessed")
+    public void fullTextSearchableEntityShouldBeLoadedWithoutSearchData(int index) {
+        TestDatabase.inNewTransaction(entityManager -> {
+            FtsDbTestEntity entity = entityManager.find(FtsDbTestEntity.class, toId(index));
+            String property = FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY;
+
+            assertThat(Hibernate.isPropertyInitialized(entity, property))
+                    .as("search data initialized after entity loading")
+                    .isFalse();
+            assertThat(entity.getFullTextSearchData())
+                    .as("fullTextSearchData")
+                    .isNotBlank();
+            assertThat(Hibernate.isPropertyInitialized(entity, property))
+                    .as("search data initialized after access")
+                    .isTrue();
+            return null;
+        });
+    }
+
+    @Then("JPA inference should find no entities loading search data eagerly")
+    public void jpaInferenceShouldFindNoEntitiesLoadingSearchDataEagerly() {
+        var realJpaInference = new JpaInference(TestDatabase.getSessionFactory().createEntityManager(), environment);
+
+        assertThat(realJpaInference.findEntityClassesWithEagerFullTextSearchData())
+                .as("entity classes with eager search data")
+                .isEmpty();
+    }
+
+    @Then("full-text searchable entity {int} should have checksum {string}")
+    public void fullTextSearchableEntityShouldHaveChecksum(int index, String checksum) {
+        assertThat(findEntity(index).getFullTextSearchDataChecksum())
+                .as("fullTextSearchDataChecksum")
+                .isEqualTo(checksum);
+    }
+
+    /**
+     * Creates a Crockford Base32 ID (26 characters) which sorts in the same order as the index.
+     */
+    private static String toId(int index) {
+        return String.format(Locale.US, "%026d", index);
+    }
+
+    /**
+     * Reads search data inside the transaction, because it's lazy.
+     */
+    private String findSearchData(int index) {
+        return TestDatabase.inNewTransaction(entityManager ->
+                entityManager.find(FtsDbTestEntity.class, toId(index)).getFullTextSearchData());
+    }
+
+    private FtsDbTestEntity findEntity(int index) {
+        return TestDatabase.inNewTransaction(entityManager ->
+                entityManager.find(FtsDbTestEntity.class, toId(index)));
+    }
+
+}
@@ -0,0 +1,106 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.domain.FtsDbTestEntity;
+import guru.nicks.commons.cucumber.domain.TestDatabase;
+import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.service.FullTextSearchReindexService;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.hibernate.stat.Statistics;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Step definitions for testing {@link FullTextSearchReindexService} against {@link TestDatabase}.
+ */
+public class FullTextSearchReindexServiceSteps {
+
+    @Mock
+    private JpaInference jpaInference;
+    private AutoCloseable closeableMocks;
+
+    private FullTextSearchReindexService service;
+    private FullTextSearchReindexService.ReindexProgress reindexProgress;
+    private long loadedEntityCount;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("the full-text search reindex service")
+    public void theFullTextSearchReindexService() {
+        when(jpaInference.getSqlDialect())
+                .thenReturn(EnhancedSqlDialect.POSTGRES);
+        when(jpaInference.getTableName(FtsDbTestEntity.class))
+                .thenReturn("fts_db_test_entity");
+        when(jpaInference.getColumnName(FtsDbTestEntity.class,
+                FullTextSearchAwareEntity.FULL_TEXT_SEARCH_DATA_PROPERTY))
+                .thenReturn("full_text_search_data");
+        when(jpaInference.getColumnName(FtsDbTestEntity.class,
+                FullTextSearchAwareEntity.Fields.fullTextSearchDataChecksum))
+                .thenReturn("full_text_search_data_checksum");
+        when(jpaInference.getColumnName(FtsDbTestEntity.class, FtsDbTestEntity.Fields.id))
+                .thenReturn("id");
+
+        service = new FullTextSearchReindexService(TestDatabase.getSessionFactory(), jpaInference, 10);
+    }
+
+    @When("full-text search data is reindexed after entity {int}")
+    public void fullTextSearchDataIsReindexedAfterEntity(int index) {
+        Statistics statistics = TestDatabase.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        reindexProgress = service.reindex(FtsDbTestEntity.class, toId(index), Runnable::run, progress -> {
+        });
+        loadedEntityCount = statistics.getEntityLoadCount();
+    }
+
+    @Then("reindex should have processed {int} entities and updated {int} of them")
+    public void reindexShouldHaveProcessedEntities(int processed, int updated) {
+        assertThat(reindexProgress.processed())
+                .as("processed")
+                .isEqualTo(processed);
+        assertThat(reindexProgress.updated())
+                .as("updated")
+                .isEqualTo(updated);
+    }
+
+    @Then("reindex should have stopped at entity {int}")
+    public void reindexShouldHaveStoppedAtEntity(int index) {
+        assertThat(reindexProgress.lastProcessedId())
+                .as("lastProcessedId")
+                .isEqualTo(toId(index));
+    }
+
+    @Then("reindex should not have loaded any entities")
+    public void reindexShouldNotHaveLoadedAnyEntities() {
+        assertThat(loadedEntityCount)
+                .as("loadedEntityCount")
+                .isZero();
+    }
+
+    /**
+     * Creates a Crockford Base32 ID (26 characters) which sorts in the same order as the index.
+     */
+    private static String toId(int index) {
+        return String.format(Locale.US, "%026d", index);
+    }
+
+}
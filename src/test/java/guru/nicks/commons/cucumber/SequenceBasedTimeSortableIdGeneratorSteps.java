@@ -0,0 +1,298 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.domain.TestEntity;
+import guru.nicks.commons.cucumber.world.JpaWorld;
+import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+import guru.nicks.commons.jpa.generator.SequenceBasedTimeSortableIdGenerator;
+import guru.nicks.commons.jpa.generator.SequenceBasedTimeSortableIdGeneratorImpl;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RequiredArgsConstructor
+public class SequenceBasedTimeSortableIdGeneratorSteps {
+
+    private static final String SEQUENCE_NAME = "test_seq";
+    private static final String SEQUENCE_NEXT_VALUE_SQL = "select nextval('" + SEQUENCE_NAME + "')";
+
+    // DI
+    private final JpaWorld jpaWorld;
+    private final TextWorld textWorld;
+
+    @Mock
+    private SequenceBasedTimeSortableIdGenerator annotation;
+    @Mock
+    private CustomIdGeneratorCreationContext context;
+    @Mock
+    private ServiceRegistry serviceRegistry;
+    @Mock
+    private JdbcEnvironment jdbcEnvironment;
+    @Mock
+    private Dialect dialect;
+    @Mock
+    private PostgreSQLDialect postgresDialect;
+    @Mock
+    private SequenceSupport sequenceSupport;
+    @Mock
+    private SharedSessionContractImplementor session;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private JdbcCoordinator jdbcCoordinator;
+    @Mock
+    private PreparedStatement statement;
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private PreparedStatement incrementStatement;
+    @Mock
+    private ResultSet incrementResultSet;
+    private AutoCloseable closeableMocks;
+
+    private SequenceBasedTimeSortableIdGeneratorImpl generator;
+    private List<String> generatedIds;
+
+    /**
+     * Emulates a sequence incremented by {@link #sequenceIncrement}.
+     */
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final AtomicInteger sequenceQueryCount = new AtomicInteger();
+    private int sequenceIncrement = 1;
+
+    /**
+     * Sequence increment returned by the DB metadata query, {@code null} if the sequence is not found there.
+     */
+    private Long declaredSequenceIncrement;
+
+    /**
+     * Number of values requested by the current statement, and number of result set rows not read yet.
+     */
+    private final AtomicInteger requestedValueCount = new AtomicInteger(1);
+    private final AtomicInteger remainingRowCount = new AtomicInteger();
+
+    @Before
+    public void beforeEachScenario() throws Exception {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+
+        when(context.getServiceRegistry())
+                .thenReturn(serviceRegistry);
+        when(serviceRegistry.getService(JdbcEnvironment.class))
+                .thenReturn(jdbcEnvironment);
+        when(jdbcEnvironment.getDialect())
+                .thenReturn(dialect);
+        when(dialect.getSequenceSupport())
+                .thenReturn(sequenceSupport);
+        when(postgresDialect.getSequenceSupport())
+                .thenReturn(sequenceSupport);
+        when(sequenceSupport.getSequenceNextValString(SEQUENCE_NAME))
+                .thenReturn(SEQUENCE_NEXT_VALUE_SQL);
+        when(annotation.sequenceName())
+                .thenReturn(SEQUENCE_NAME);
+        when(annotation.allocationSize())
+                .thenReturn(1);
+        when(annotation.fetchSize())
+                .thenReturn(1);
+
+        // emulate JDBC: each statement execution returns as many rows as requested (1 if not set explicitly)
+        when(session.getJdbcCoordinator())
+                .thenReturn(jdbcCoordinator);
+        when(jdbcCoordinator.getStatementPreparer().prepareStatement(anyString()))
+                .thenReturn(statement);
+        doAnswer(invocation -> {
+            requestedValueCount.set(invocation.getArgument(1));
+            return null;
+        }).when(statement).setInt(eq(1), anyInt());
+        when(jdbcCoordinator.getResultSetReturn().extract(eq(statement), anyString()))
+                .thenAnswer(invocation -> {
+                    sequenceQueryCount.incrementAndGet();
+                    remainingRowCount.set(requestedValueCount.getAndSet(1));
+                    return resultSet;
+                });
+        when(resultSet.next())
+                .thenAnswer(invocation -> remainingRowCount.getAndDecrement() > 0);
+        when(resultSet.getLong(1))
+                .thenAnswer(invocation -> sequence.getAndAdd(sequenceIncrement));
+
+        // emulate DB metadata: the sequence increment query is not counted as a sequence query
+        when(jdbcCoordinator.getStatementPreparer()
+                .prepareStatement(EnhancedSqlDialect.POSTGRES.getSequenceIncrementQuery()))
+                .thenReturn(incrementStatement);
+        when(jdbcCoordinator.getResultSetReturn().extract(eq(incrementStatement), anyString()))
+                .thenReturn(incrementResultSet);
+        when(incrementResultSet.next())
+                .thenAnswer(invocation -> declaredSequenceIncrement != null);
+        when(incrementResultSet.getLong(1))
+                .thenAnswer(invocation -> declaredSequenceIncrement);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a SequenceBasedTimeSortableIdGenerator with allocation size {int}")
+    public void aSequenceBasedTimeSortableIdGeneratorWithAllocationSize(int allocationSize) throws Exception {
+        // pooled-lo requires the sequence to be incremented by the allocation size
+        sequenceIncrement = allocationSize;
+        when(annotation.allocationSize())
+                .thenReturn(allocationSize);
+        generator = createGenerator();
+    }
+
+    @Given("the sequence is declared in DB with increment {string}")
+    public void theSequenceIsDeclaredInDbWithIncrement(String increment) {
+        declaredSequenceIncrement = increment.isEmpty()
+                ? null
+                : Long.valueOf(increment);
+    }
+
+    @Given("a SequenceBasedTimeSortableIdGenerator with allocation size {int} for Postgres")
+    public void aSequenceBasedTimeSortableIdGeneratorWithAllocationSizeForPostgres(int allocationSize)
+            throws Exception {
+        when(jdbcEnvironment.getDialect())
+                .thenReturn(postgresDialect);
+        aSequenceBasedTimeSortableIdGeneratorWithAllocationSize(allocationSize);
+    }
+
+    @Given("a SequenceBasedTimeSortableIdGenerator with fetch size {int} for Postgres")
+    public void aSequenceBasedTimeSortableIdGeneratorWithFetchSizeForPostgres(int fetchSize) throws Exception {
+        when(jdbcEnvironment.getDialect())
+                .thenReturn(postgresDialect);
+        when(annotation.fetchSize())
+                .thenReturn(fetchSize);
+        generator = createGenerator();
+    }
+
+    @When("a SequenceBasedTimeSortableIdGenerator with allocation size {int} is created")
+    public void aSequenceBasedTimeSortableIdGeneratorWithAllocationSizeIsCreated(int allocationSize) {
+        when(annotation.allocationSize())
+                .thenReturn(allocationSize);
+        textWorld.setLastException(catchThrowable(this::createGenerator));
+    }
+
+    @When("a SequenceBasedTimeSortableIdGenerator with allocation size {int} and fetch size {int} is created")
+    public void aSequenceBasedTimeSortableIdGeneratorWithAllocationSizeAndFetchSizeIsCreated(int allocationSize,
+            int fetchSize) {
+        when(jdbcEnvironment.getDialect())
+                .thenReturn(postgresDialect);
+        when(annotation.allocationSize())
+                .thenReturn(allocationSize);
+        when(annotation.fetchSize())
+                .thenReturn(fetchSize);
+        textWorld.setLastException(catchThrowable(this::createGenerator));
+    }
+
+    @When("a SequenceBasedTimeSortableIdGenerator with fetch size {int} is created for a non-Postgres dialect")
+    public void aSequenceBasedTimeSortableIdGeneratorWithFetchSizeIsCreatedForANonPostgresDialect(int fetchSize) {
+        when(annotation.fetchSize())
+                .thenReturn(fetchSize);
+        textWorld.setLastException(catchThrowable(this::createGenerator));
+    }
+
+    @When("{int} IDs are generated for new entities")
+    public void idsAreGeneratedForNewEntities(int idCount) {
+        textWorld.setLastException(catchThrowable(() ->
+                generatedIds = IntStream.range(0, idCount)
+                        .mapToObj(i -> generateIdForNewEntity())
+                        .toList()));
+    }
+
+    @When("{int} IDs are generated for new entities by {int} threads")
+    public void idsAreGeneratedForNewEntitiesByThreads(int idCount, int threadCount) {
+        textWorld.setLastException(catchThrowable(() -> {
+            try (ExecutorService executor = Executors.newFixedThreadPool(threadCount)) {
+                List<Callable<String>> tasks = IntStream.range(0, idCount)
+                        .<Callable<String>>mapToObj(i -> this::generateIdForNewEntity)
+                        .toList();
+
+                generatedIds = executor.invokeAll(tasks).stream()
+                        .map(this::getResult)
+                        .toList();
+            }
+        }));
+    }
+
+    @When("the SequenceBasedTimeSortableIdGenerator is called with the existing entity")
+    public void theSequenceBasedTimeSortableIdGeneratorIsCalledWithTheExistingEntity() {
+        jpaWorld.setGeneratedId((String) generator.generate(session, jpaWorld.getEntity(), null, EventType.INSERT));
+    }
+
+    @Then("all generated IDs should be unique")
+    public void allGeneratedIdsShouldBeUnique() {
+        assertThat(generatedIds)
+                .as("generatedIds")
+                .isNotEmpty()
+                .doesNotContainNull()
+                .doesNotHaveDuplicates();
+    }
+
+    @Then("the sequence increment should have been checked for sequence {string} in the current schema")
+    public void theSequenceIncrementShouldHaveBeenChecked(String sequenceName) throws Exception {
+        verify(incrementStatement).setString(1, sequenceName);
+        verify(incrementStatement).setString(2, null);
+    }
+
+    @Then("the sequence should have been queried {int} times")
+    public void theSequenceShouldHaveBeenQueriedTimes(int queryCount) {
+        assertThat(sequenceQueryCount.get())
+                .as("sequenceQueryCount")
+                .isEqualTo(queryCount);
+    }
+
+    private SequenceBasedTimeSortableIdGeneratorImpl createGenerator() throws NoSuchFieldException {
+        Field idMember = TestEntity.class.getDeclaredField(TestEntity.Fields.id);
+        return new SequenceBasedTimeSortableIdGeneratorImpl(annotation, idMember, context);
+    }
+
+    private String generateIdForNewEntity() {
+        return (String) generator.generate(session, TestEntity.builder().build(), null, EventType.INSERT);
+    }
+
+    private String getResult(Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.domain.DbTestEntity;
+import guru.nicks.commons.cucumber.domain.DbTestEntityRepository;
+import guru.nicks.commons.cucumber.domain.FtsDbTestEntity;
+import guru.nicks.commons.cucumber.domain.FtsDbTestEntityRepository;
+import guru.nicks.commons.cucumber.domain.TestDatabase;
+import guru.nicks.commons.cucumber.domain.TwoPhaseFtsDbTestEntityRepository;
+import guru.nicks.commons.cucumber.world.JpaWorld;
+import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.domain.EnhancedSqlDialect;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.support.StaticApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Step definitions shared by scenarios which use {@link TestDatabase}.
+ */
+@RequiredArgsConstructor
+public class TestDatabaseSteps {
+
+    // DI
+    private final JpaWorld jpaWorld;
+
+    @Mock
+    private JpaInference jpaInference;
+    private AutoCloseable closeableMocks;
+
+    /**
+     * Spied on to see how often repository beans are looked up.
+     */
+    private StaticApplicationContext applicationContext;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        EntityManager entityManager = jpaWorld.getEntityManager();
+
+        if (entityManager != null) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+
+            entityManager.close();
+        }
+
+        closeableMocks.close();
+    }
+
+    @Given("the test database is empty")
+    public void theTestDatabaseIsEmpty() {
+        when(jpaInference.getSqlDialect())
+                .thenReturn(EnhancedSqlDialect.POSTGRES);
+        when(jpaInference.getTableName(DbTestEntity.class))
+                .thenReturn("db_test_entity");
+        when(jpaInference.getTableName(FtsDbTestEntity.class))
+                .thenReturn("fts_db_test_entity");
+
+        EntityManager entityManager = TestDatabase.createEntityManager();
+        entityManager.getTransaction().begin();
+
+        applicationContext = spy(new StaticApplicationContext());
+        applicationContext.refresh();
+
+        jpaWorld.setEntityManager(entityManager);
+        jpaWorld.setDbTestEntityRepository(TestDatabase.createRepository(entityManager, jpaInference,
+                applicationContext, DbTestEntityRepository.class, DbTestEntity.class));
+        jpaWorld.setFtsDbTestEntityRepository(TestDatabase.createRepository(entityManager, jpaInference,
+                applicationContext, FtsDbTestEntityRepository.class, FtsDbTestEntity.class));
+    }
+
+    @Given("ID array lookup is enabled")
+    public void idArrayLookupIsEnabled() {
+        when(jpaInference.isIdArrayLookupEnabled())
+                .thenReturn(true);
+    }
+
+    @Given("two-phase ranked search is enabled")
+    public void twoPhaseRankedSearchIsEnabled() {
+        // a separate context, otherwise the repository bean of the supertype would be ambiguous
+        var twoPhaseApplicationContext = new StaticApplicationContext();
+        twoPhaseApplicationContext.refresh();
+
+        jpaWorld.setFtsDbTestEntityRepository(TestDatabase.createRepository(jpaWorld.getEntityManager(),
+                jpaInference, twoPhaseApplicationContext, TwoPhaseFtsDbTestEntityRepository.class,
+                FtsDbTestEntity.class));
+    }
+
+    @Given("{int} entities named {string} are stored in DB")
+    public void entitiesNamedAreStoredInDb(int count, String name) {
+        EntityManager entityManager = jpaWorld.getEntityManager();
+
+        for (int i = 0; i < count; i++) {
+            var entity = DbTestEntity.builder()
+                    .id(jpaWorld.getStoredEntities().size() + 1L)
+                    .name(name)
+                    .build();
+            entityManager.persist(entity);
+            jpaWorld.getStoredEntities().add(entity);
+        }
+
+        // as if the entities were stored by someone else
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @When("the changes are committed")
+    public void theChangesAreCommitted() {
+        jpaWorld.getEntityManager().getTransaction().commit();
+    }
+
+    @When("the changes are rolled back")
+    public void theChangesAreRolledBack() {
+        jpaWorld.getEntityManager().getTransaction().rollback();
+    }
+
+    @Then("the repository bean should have been looked up {int} times")
+    public void theRepositoryBeanShouldHaveBeenLookedUpTimes(int count) {
+        verify(applicationContext, times(count)).getBean(DbTestEntityRepository.class);
+    }
+
+    @Then("stored entity {long} should be named {string} in DB")
+    public void storedEntityShouldBeNamedInDb(long id, String name) {
+        String storedName = TestDatabase.inNewTransaction(entityManager ->
+                entityManager.find(DbTestEntity.class, id).getName());
+
+        assertThat(storedName)
+                .as("stored name")
+                .isEqualTo(name);
+    }
+
+    @Then("{long} entities should be stored in DB")
+    public void entitiesShouldBeStoredInDb(long count) {
+        long storedCount = TestDatabase.inNewTransaction(entityManager -> entityManager
+                .createQuery("SELECT COUNT(e) FROM " + DbTestEntity.class.getSimpleName() + " e", Long.class)
+                .getSingleResult());
+
+        assertThat(storedCount)
+                .as("stored count")
+                .isEqualTo(count);
+    }
+
+}
@@ -0,0 +1,88 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.domain.TestEntity;
+import guru.nicks.commons.jpa.repository.TotalCountStrategy;
+
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Step definitions for testing {@link TotalCountStrategy} implementations.
+ */
+public class TotalCountStrategySteps {
+
+    private final AtomicInteger exactCountRuns = new AtomicInteger();
+
+    private long exactTotalCount;
+    private OptionalLong rowCountEstimate = OptionalLong.empty();
+    private TotalCountStrategy strategy;
+    private long totalCount;
+
+    @Given("the exact total count is {long}")
+    public void theExactTotalCountIs(long count) {
+        exactTotalCount = count;
+    }
+
+    @Given("the row count estimate is {string}")
+    public void theRowCountEstimateIs(String estimate) {
+        rowCountEstimate = StringUtils.isBlank(estimate)
+                ? OptionalLong.empty()
+                : OptionalLong.of(Long.parseLong(estimate));
+    }
+
+    @Given("the {string} total count strategy")
+    public void theTotalCountStrategy(String strategyName) {
+        strategy = switch (strategyName) {
+            case "exact" -> TotalCountStrategy.EXACT;
+            case "cached" -> TotalCountStrategy.cached(Duration.ofMinutes(1), 100);
+            default -> throw new IllegalArgumentException("Unsupported strategy: " + strategyName);
+        };
+    }
+
+    @Given("the {string} total count strategy with threshold {long}")
+    public void theTotalCountStrategyWithThreshold(String strategyName, long threshold) {
+        if (!"estimated".equals(strategyName)) {
+            throw new IllegalArgumentException("Unsupported strategy: " + strategyName);
+        }
+
+        strategy = TotalCountStrategy.estimated(threshold);
+    }
+
+    @When("the total count is requested {int} times for filter {string} and full-text search {string}")
+    public void theTotalCountIsRequestedTimes(int times, String filter, String fullTextSearch) {
+        var request = new TotalCountStrategy.Request(TestEntity.class, filter,
+                StringUtils.defaultIfBlank(fullTextSearch, null),
+                () -> {
+                    exactCountRuns.incrementAndGet();
+                    return exactTotalCount;
+                },
+                () -> rowCountEstimate);
+
+        for (int i = 0; i < times; i++) {
+            totalCount = strategy.count(request);
+        }
+    }
+
+    @Then("the total count should be {long}")
+    public void theTotalCountShouldBe(long expected) {
+        assertThat(totalCount)
+                .as("totalCount")
+                .isEqualTo(expected);
+    }
+
+    @Then("the exact count should have been run {int} times")
+    public void theExactCountShouldHaveBeenRunTimes(int expected) {
+        assertThat(exactCountRuns.get())
+                .as("exactCountRuns")
+                .isEqualTo(expected);
+    }
+
+}
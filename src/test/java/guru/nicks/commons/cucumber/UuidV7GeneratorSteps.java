@@ -19,15 +19,19 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
@@ -56,6 +60,7 @@ public class UuidV7GeneratorSteps {
     private Object generatedId;
     private UUID existingUuid;
     private EnumSet<EventType> eventTypes;
+    private List<UUID> generatedUuids;
 
     @Before
     public void beforeEachScenario() {
@@ -105,23 +110,11 @@ public class UuidV7GeneratorSteps {
     @Given("the entity ID getter throws an exception")
     public void theEntityIdGetterThrowsAnException() throws Exception {
         // instantiate the generator first (requires valid setup)
-        idMember = TestEntityWithUuid.class.getDeclaredField("id");
+        idMember = TestEntityWithFailingGetter.class.getDeclaredField("id");
         generator = new UuidV7GeneratorImpl(annotation, idMember, context);
 
-        entityClass = TestEntityWithUuid.class;
+        entityClass = TestEntityWithFailingGetter.class;
         entityInstance = entityClass.getDeclaredConstructor().newInstance();
-
-        // mock the Method object itself
-        Method mockedGetter = mock(Method.class);
-        when(mockedGetter.getName())
-                .thenReturn("getId");
-        when(mockedGetter.invoke(entityInstance))
-                .thenThrow(new InvocationTargetException(new RuntimeException("Getter failed")));
-
-        // use reflection to replace the generator's 'getter' field with our mock
-        Field generatorGetterField = generator.getClass().getDeclaredField("getter");
-        generatorGetterField.setAccessible(true);
-        generatorGetterField.set(generator, mockedGetter);
     }
 
     @When("the generator is instantiated")
@@ -157,6 +150,73 @@ public class UuidV7GeneratorSteps {
         eventTypes = generator.getEventTypes();
     }
 
+    @Given("the UuidV7Generator counter is per-thread: {booleanValue}")
+    public void theUuidV7GeneratorCounterIsPerThread(boolean perThread) {
+        when(annotation.perThread())
+                .thenReturn(perThread);
+    }
+
+    @When("{int} UUIDs are generated for new entities")
+    public void uuidsAreGeneratedForNewEntities(int count) {
+        generator = new UuidV7GeneratorImpl(annotation, idMember, context);
+        generatedUuids = IntStream.range(0, count)
+                .mapToObj(i -> generateUuidForNewEntity())
+                .toList();
+    }
+
+    @When("{int} UUIDs are generated for new entities by {int} threads")
+    public void uuidsAreGeneratedForNewEntitiesByThreads(int count, int threadCount) throws Exception {
+        generator = new UuidV7GeneratorImpl(annotation, idMember, context);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threadCount)) {
+            List<Callable<UUID>> tasks = IntStream.range(0, count)
+                    .<Callable<UUID>>mapToObj(i -> this::generateUuidForNewEntity)
+                    .toList();
+
+            List<UUID> uuids = new ArrayList<>(count);
+            for (Future<UUID> future : executor.invokeAll(tasks)) {
+                uuids.add(future.get());
+            }
+
+            generatedUuids = uuids;
+        }
+    }
+
+    @Then("the generated UUIDs should be valid UUID v7")
+    public void theGeneratedUuidsShouldBeValidUuidV7() {
+        assertThat(generatedUuids)
+                .as("generatedUuids")
+                .isNotEmpty()
+                .allSatisfy(uuid -> {
+                    assertThat(uuid.version())
+                            .as("UUID version")
+                            .isEqualTo(7);
+                    assertThat(uuid.variant())
+                            .as("UUID variant")
+                            .isEqualTo(2);
+                });
+    }
+
+    @Then("the generated UUIDs should be strictly ascending")
+    public void theGeneratedUuidsShouldBeStrictlyAscending() {
+        // string comparison is unsigned, unlike UUID.compareTo()
+        List<String> uuidStrings = generatedUuids.stream()
+                .map(UUID::toString)
+                .toList();
+
+        assertThat(uuidStrings)
+                .as("generatedUuids")
+                .isSorted()
+                .doesNotHaveDuplicates();
+    }
+
+    @Then("the generated UUIDs should be unique")
+    public void theGeneratedUuidsShouldBeUnique() {
+        assertThat(generatedUuids)
+                .as("generatedUuids")
+                .doesNotHaveDuplicates();
+    }
+
     @Then("a new UUID v7 should be generated")
     public void aNewUuidV7ShouldBeGenerated() {
         assertThat(generatedId)
@@ -181,6 +241,15 @@ public class UuidV7GeneratorSteps {
                 .isEqualTo(EnumSet.of(EventType.INSERT));
     }
 
+    private UUID generateUuidForNewEntity() {
+        try {
+            Object entity = entityClass.getDeclaredConstructor().newInstance();
+            return (UUID) generator.generate(session, entity, null, EventType.INSERT);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Getter
     @Setter
     public static class TestEntityWithUuid {
@@ -190,6 +259,17 @@ public class UuidV7GeneratorSteps {
 
     }
 
+    @Setter
+    public static class TestEntityWithFailingGetter {
+
+        private UUID id;
+
+        public UUID getId() {
+            throw new RuntimeException("Getter failed");
+        }
+
+    }
+
     @Getter
     @Setter
     public static class TestEntityWithStringId {
@@ -0,0 +1,35 @@
+package guru.nicks.commons.cucumber.domain;
+
+import guru.nicks.commons.jpa.domain.AuditableEntity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldNameConstants;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Entity stored in {@link TestDatabase}. IDs are assigned by tests, so that nothing prevents JDBC batching.
+ */
+@Entity
+@Table(name = "db_test_entity")
+@NoArgsConstructor
+@Data
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+@FieldNameConstants
+@SuperBuilder
+public class DbTestEntity extends AuditableEntity<Long> {
+
+    @Id
+    @Getter(onMethod_ = @Override)
+    private Long id;
+
+    private String name;
+
+}
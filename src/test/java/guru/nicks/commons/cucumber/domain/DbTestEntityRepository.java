@@ -0,0 +1,40 @@
+package guru.nicks.commons.cucumber.domain;
+
+import guru.nicks.commons.exception.BusinessException;
+import guru.nicks.commons.jpa.repository.EnhancedJpaSearchRepository;
+
+import com.querydsl.core.BooleanBuilder;
+import lombok.experimental.StandardException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+/**
+ * Repository of {@link DbTestEntity}, created by {@link TestDatabase#createRepository}. The filter is the entity name
+ * ({@code null} means any name).
+ */
+public interface DbTestEntityRepository
+        extends EnhancedJpaSearchRepository<DbTestEntity, Long, DbTestEntityRepository.DbTestEntityNotFoundException,
+        String> {
+
+    @Override
+    default BooleanBuilder convertToSearchBuilder(String filter) {
+        var builder = new BooleanBuilder();
+
+        Optional.ofNullable(filter)
+                .map(QDbTestEntity.dbTestEntity.name::eq)
+                .ifPresent(builder::and);
+        return builder;
+    }
+
+    @Override
+    default Page<DbTestEntity> findByFilter(String filter, Pageable pageable) {
+        return findByFilter(filter, () -> null, pageable, QDbTestEntity.dbTestEntity, () -> null);
+    }
+
+    @StandardException
+    class DbTestEntityNotFoundException extends BusinessException {
+    }
+
+}
@@ -0,0 +1,119 @@
+package guru.nicks.commons.cucumber.domain;
+
+import guru.nicks.commons.jpa.domain.CrockfordBase32UuidType;
+import guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity;
+import guru.nicks.commons.jpa.domain.FullTextSearchStrategy;
+import guru.nicks.commons.utils.text.NgramUtilsConfig;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Basic;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldNameConstants;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.annotations.Type;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static guru.nicks.commons.jpa.domain.FullTextSearchAwareEntity.FULL_TEXT_SEARCH_LAZY_GROUP;
+
+/**
+ * Full-text searchable entity stored in {@link TestDatabase}. Its search data rebuild is deferred, and its ID is stored
+ * as a native UUID (like in real applications), so that ID binding is tested too. The search data is lazy: test
+ * classes are bytecode-enhanced at build time, as applications are expected to do.
+ */
+@Entity
+@Table(name = "fts_db_test_entity")
+@NoArgsConstructor
+@Data
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+@FieldNameConstants
+@SuperBuilder
+public class FtsDbTestEntity extends FullTextSearchAwareEntity<String> {
+
+    /**
+     * Called once, when search text is collected next time - to simulate concurrent modifications.
+     */
+    @Nullable
+    private static volatile Runnable nextTextCollectionListener;
+
+    @Id
+    @Type(CrockfordBase32UuidType.class)
+    @Getter(onMethod_ = @Override)
+    private String id;
+
+    private String name;
+
+    @Getter(value = AccessLevel.PROTECTED, onMethod_ = @Override)
+    @JsonIgnore
+    @ToString.Exclude
+    @Transient
+    private final Collection<Supplier<String>> fullTextSearchDataSuppliers = List.of(this::collectName);
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FULL_TEXT_SEARCH_LAZY_GROUP)
+    private String fullTextSearchData;
+
+    public static void setNextTextCollectionListener(@Nullable Runnable listener) {
+        nextTextCollectionListener = listener;
+    }
+
+    @Override
+    public int getMaxFullTextSearchDataLength() {
+        return 255;
+    }
+
+    @Nonnull
+    @Override
+    public NgramUtilsConfig getNgramUtilsConfig() {
+        return NgramUtilsConfig.DEFAULT;
+    }
+
+    /**
+     * Trigram search data consists of plain words, so it can be stored in H2.
+     */
+    @Override
+    public FullTextSearchStrategy getFullTextSearchStrategy() {
+        return FullTextSearchStrategy.TRIGRAM;
+    }
+
+    @Nonnull
+    @Override
+    public Collection<String> getFullTextSearchSourceProperties() {
+        return List.of(Fields.name);
+    }
+
+    @Override
+    protected boolean isFullTextSearchRebuildDeferred() {
+        return true;
+    }
+
+    private String collectName() {
+        Runnable listener = nextTextCollectionListener;
+
+        if (listener != null) {
+            nextTextCollectionListener = null;
+            listener.run();
+        }
+
+        return name;
+    }
+
+}
@@ -0,0 +1,40 @@
+package guru.nicks.commons.cucumber.domain;
+
+import guru.nicks.commons.exception.BusinessException;
+import guru.nicks.commons.jpa.repository.EnhancedJpaSearchRepository;
+
+import com.querydsl.core.BooleanBuilder;
+import lombok.experimental.StandardException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+/**
+ * Repository of {@link FtsDbTestEntity}, created by {@link TestDatabase#createRepository}. The filter is a part of the
+ * entity name ({@code null} means any name).
+ */
+public interface FtsDbTestEntityRepository
+        extends EnhancedJpaSearchRepository<FtsDbTestEntity, String,
+        FtsDbTestEntityRepository.FtsDbTestEntityNotFoundException, String> {
+
+    @Override
+    default BooleanBuilder convertToSearchBuilder(String filter) {
+        var builder = new BooleanBuilder();
+
+        Optional.ofNullable(filter)
+                .map(QFtsDbTestEntity.ftsDbTestEntity.name::contains)
+                .ifPresent(builder::and);
+        return builder;
+    }
+
+    @Override
+    default Page<FtsDbTestEntity> findByFilter(String filter, Pageable pageable) {
+        return findByFilter(filter, () -> null, pageable, QFtsDbTestEntity.ftsDbTestEntity, () -> null);
+    }
+
+    @StandardException
+    class FtsDbTestEntityNotFoundException extends BusinessException {
+    }
+
+}
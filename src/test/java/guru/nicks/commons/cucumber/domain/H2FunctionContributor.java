@@ -0,0 +1,35 @@
+package guru.nicks.commons.cucumber.domain;
+
+import guru.nicks.commons.jpa.impl.EnhancedSqlFunctionContributor;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers, for H2 only, the trigram HQL functions which {@link EnhancedSqlFunctionContributor} registers for
+ * Postgres only. They call {@link H2Functions}.
+ * <p>
+ * Registered via {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class H2FunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        if (!(functionContributions.getDialect() instanceof H2Dialect)) {
+            return;
+        }
+
+        SqmFunctionRegistry functionRegistry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry typeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionRegistry.registerPattern(EnhancedSqlFunctionContributor.FULL_TEXT_SEARCH_TRIGRAM_FUNCTION,
+                "FULL_TEXT_SEARCH_TRIGRAM(?1, ?2)", typeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+        functionRegistry.registerPattern(EnhancedSqlFunctionContributor.FULL_TEXT_SEARCH_TRIGRAM_RANK_FUNCTION,
+                "FULL_TEXT_SEARCH_TRIGRAM_RANK(?1, ?2)", typeRegistry.resolve(StandardBasicTypes.DOUBLE));
+    }
+
+}
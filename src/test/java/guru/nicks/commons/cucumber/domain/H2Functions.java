@@ -0,0 +1,81 @@
+package guru.nicks.commons.cucumber.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Java implementations of the DB functions called by HQL functions (see {@link H2FunctionContributor} and
+ * {@link guru.nicks.commons.jpa.impl.EnhancedSqlFunctionContributor}), registered in {@link TestDatabase} with
+ * {@code CREATE ALIAS}. They're simplified: they only need to tell matching rows from non-matching ones.
+ */
+public final class H2Functions {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private H2Functions() {
+    }
+
+    /**
+     * Checks if the search data contains at least one of the search words.
+     *
+     * @param data search data (words separated by spaces)
+     * @param text search words separated by spaces
+     * @return {@code true} if at least one word matches
+     */
+    public static boolean fullTextSearchTrigram(String data, String text) {
+        return fullTextSearchTrigramRank(data, text) > 0;
+    }
+
+    /**
+     * Counts search words found in the search data.
+     *
+     * @param data search data (words separated by spaces)
+     * @param text search words separated by spaces
+     * @return number of words found
+     */
+    public static double fullTextSearchTrigramRank(String data, String text) {
+        if ((data == null) || (text == null)) {
+            return 0;
+        }
+
+        Set<String> dataWords = splitWords(data);
+        return splitWords(text).stream()
+                .filter(dataWords::contains)
+                .count();
+    }
+
+    /**
+     * Checks if the JSON document is the given value or, if it's an array, contains it.
+     *
+     * @param document JSON document
+     * @param value    JSON value
+     * @return 1 if the value is contained, 0 otherwise
+     * @throws JsonProcessingException invalid JSON
+     */
+    public static int jsonContains(String document, String value) throws JsonProcessingException {
+        if (document == null) {
+            return 0;
+        }
+
+        JsonNode documentJson = OBJECT_MAPPER.readTree(document);
+        JsonNode valueJson = OBJECT_MAPPER.readTree(value);
+
+        boolean contains = documentJson.isArray()
+                ? documentJson.valueStream().anyMatch(valueJson::equals)
+                : documentJson.equals(valueJson);
+        return contains ? 1 : 0;
+    }
+
+    private static Set<String> splitWords(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.US).split("\\s+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+}
@@ -0,0 +1,27 @@
+package guru.nicks.commons.cucumber.domain;
+
+import com.querydsl.core.types.PathMetadataFactory;
+import com.querydsl.core.types.dsl.DateTimePath;
+import com.querydsl.core.types.dsl.EntityPathBase;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+
+import java.time.Instant;
+
+/**
+ * QueryDSL metamodel of {@link DbTestEntity}, written by hand because the QueryDSL annotation processor doesn't run for
+ * tests. Spring Data finds it by name.
+ */
+public class QDbTestEntity extends EntityPathBase<DbTestEntity> {
+
+    public static final QDbTestEntity dbTestEntity = new QDbTestEntity("dbTestEntity");
+
+    public final NumberPath<Long> id = createNumber(DbTestEntity.Fields.id, Long.class);
+    public final StringPath name = createString(DbTestEntity.Fields.name);
+    public final DateTimePath<Instant> createdDate = createDateTime("createdDate", Instant.class);
+
+    public QDbTestEntity(String variable) {
+        super(DbTestEntity.class, PathMetadataFactory.forVariable(variable));
+    }
+
+}
@@ -0,0 +1,26 @@
+package guru.nicks.commons.cucumber.domain;
+
+import com.querydsl.core.types.PathMetadataFactory;
+import com.querydsl.core.types.dsl.DateTimePath;
+import com.querydsl.core.types.dsl.EntityPathBase;
+import com.querydsl.core.types.dsl.StringPath;
+
+import java.time.Instant;
+
+/**
+ * QueryDSL metamodel of {@link FtsDbTestEntity}, written by hand because the QueryDSL annotation processor doesn't run
+ * for tests. Spring Data finds it by name.
+ */
+public class QFtsDbTestEntity extends EntityPathBase<FtsDbTestEntity> {
+
+    public static final QFtsDbTestEntity ftsDbTestEntity = new QFtsDbTestEntity("ftsDbTestEntity");
+
+    public final StringPath id = createString(FtsDbTestEntity.Fields.id);
+    public final StringPath name = createString(FtsDbTestEntity.Fields.name);
+    public final DateTimePath<Instant> createdDate = createDateTime("createdDate", Instant.class);
+
+    public QFtsDbTestEntity(String variable) {
+        super(FtsDbTestEntity.class, PathMetadataFactory.forVariable(variable));
+    }
+
+}
@@ -0,0 +1,180 @@
+package guru.nicks.commons.cucumber.domain;
+
+import guru.nicks.commons.jpa.JpaInference;
+import guru.nicks.commons.jpa.impl.EnhancedJpaSearchRepositoryImpl;
+import guru.nicks.commons.jpa.repository.EnhancedJpaSearchRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * In-memory H2 database with a Hibernate session factory for {@link DbTestEntity} and {@link FtsDbTestEntity}, shared
+ * by all scenarios. Used where mocks can't show what Hibernate actually does (JDBC batching, persistence context
+ * contents, query parameter binding, etc.). Column names are snake_case, as in Spring Boot applications. DB functions
+ * called by HQL functions are implemented in {@link H2Functions}.
+ */
+public final class TestDatabase {
+
+    /**
+     * SQL statements prepared since {@link #clearPreparedSql()}, in order. Declared before {@link #SESSION_FACTORY}
+     * because it's used by the latter.
+     */
+    private static final List<String> PREPARED_SQL = new CopyOnWriteArrayList<>();
+
+    private static final SessionFactory SESSION_FACTORY = createSessionFactory();
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Returns the session factory. Statistics are enabled.
+     *
+     * @return session factory
+     */
+    public static SessionFactory getSessionFactory() {
+        return SESSION_FACTORY;
+    }
+
+    /**
+     * Returns SQL statements prepared since {@link #clearPreparedSql()}, as generated by Hibernate (with {@code ?}
+     * placeholders).
+     *
+     * @return SQL statements, in order
+     */
+    public static List<String> getPreparedSql() {
+        return List.copyOf(PREPARED_SQL);
+    }
+
+    /**
+     * Forgets SQL statements prepared so far.
+     */
+    public static void clearPreparedSql() {
+        PREPARED_SQL.clear();
+    }
+
+    /**
+     * Deletes all entities left by previous scenarios and creates a new entity manager.
+     *
+     * @return entity manager, without a transaction
+     */
+    public static EntityManager createEntityManager() {
+        inNewTransaction(entityManager -> {
+            for (Class<?> entityClass : List.of(DbTestEntity.class, FtsDbTestEntity.class)) {
+                entityManager.createQuery("DELETE FROM " + entityClass.getSimpleName()).executeUpdate();
+            }
+
+            return null;
+        });
+        return SESSION_FACTORY.createEntityManager();
+    }
+
+    /**
+     * Runs the callback with a new entity manager, in a new transaction which is committed afterwards.
+     *
+     * @param callback callback
+     * @param <R>      result type
+     * @return callback result
+     */
+    public static <R> R inNewTransaction(Function<EntityManager, R> callback) {
+        return SESSION_FACTORY.fromTransaction(callback::apply);
+    }
+
+    /**
+     * Creates a repository the same way Spring Data does: default interface methods are called as they are, others are
+     * delegated to {@link EnhancedJpaSearchRepositoryImpl}. Transactions are not managed by the repository - the caller
+     * must begin and end them.
+     *
+     * @param entityManager       entity manager
+     * @param jpaInference        JPA inference
+     * @param applicationContext  refreshed application context to register the repository in, as a bean named after
+     *                            the repository interface
+     * @param repositoryInterface repository interface, such as {@link DbTestEntityRepository}
+     * @param entityClass         entity class
+     * @param <R>                 repository type
+     * @return repository
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <R extends EnhancedJpaSearchRepository<?, ?, ?, ?>> R createRepository(EntityManager entityManager,
+            JpaInference jpaInference, StaticApplicationContext applicationContext, Class<R> repositoryInterface,
+            Class<?> entityClass) {
+        JpaEntityInformation entityInformation = JpaEntityInformationSupport
+                .getEntityInformation(entityClass, entityManager);
+
+        var impl = new EnhancedJpaSearchRepositoryImpl(entityInformation, entityManager, repositoryInterface,
+                jpaInference, applicationContext, new ObjectMapper());
+
+        R repository = repositoryInterface.cast(Proxy.newProxyInstance(
+                repositoryInterface.getClassLoader(),
+                new Class<?>[]{repositoryInterface},
+                (proxy, method, args) -> {
+                    if (method.isDefault()) {
+                        return InvocationHandler.invokeDefault(proxy, method, args);
+                    }
+
+                    try {
+                        return method.invoke(impl, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+
+        // for EnhancedJpaRepositoryImpl#getOriginalRepositoryProxy()
+        applicationContext.getBeanFactory().registerSingleton(repositoryInterface.getName(), repository);
+        return repository;
+    }
+
+    private static SessionFactory createSessionFactory() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY,
+                        CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+                .applySetting(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                    PREPARED_SQL.add(sql);
+                    return sql;
+                })
+                .build();
+
+        SessionFactory sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(DbTestEntity.class)
+                .addAnnotatedClass(FtsDbTestEntity.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        // DB functions called by HQL functions
+        sessionFactory.inTransaction(session -> {
+            createAlias(session, "FULL_TEXT_SEARCH_TRIGRAM", "fullTextSearchTrigram");
+            createAlias(session, "FULL_TEXT_SEARCH_TRIGRAM_RANK", "fullTextSearchTrigramRank");
+            createAlias(session, "JSON_CONTAINS", "jsonContains");
+        });
+
+        return sessionFactory;
+    }
+
+    private static void createAlias(Session session, String functionName, String methodName) {
+        session.createNativeMutationQuery("CREATE ALIAS IF NOT EXISTS " + functionName
+                        + " FOR '" + H2Functions.class.getName() + "." + methodName + "'")
+                .executeUpdate();
+    }
+
+}
@@ -43,6 +43,10 @@ public class TestEntity extends FullTextSearchAwareEntity<String> {
             this::getField1, this::getField2, this::getField3);
     @ToString.Exclude
     private String fullTextSearchData;
+    @Getter(value = AccessLevel.PROTECTED, onMethod_ = @Override)
+    @JsonIgnore
+    @Transient
+    private boolean fullTextSearchRebuildDeferred;
 
     @Override
     public int getMaxFullTextSearchDataLength() {
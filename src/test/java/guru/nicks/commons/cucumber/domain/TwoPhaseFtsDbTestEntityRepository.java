@@ -0,0 +1,13 @@
+package guru.nicks.commons.cucumber.domain;
+
+/**
+ * Same as {@link FtsDbTestEntityRepository}, but full-text searches sorted by search rank run in two phases.
+ */
+public interface TwoPhaseFtsDbTestEntityRepository extends FtsDbTestEntityRepository {
+
+    @Override
+    default boolean isTwoPhaseRankedSearchEnabled() {
+        return true;
+    }
+
+}
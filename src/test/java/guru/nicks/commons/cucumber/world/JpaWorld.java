@@ -1,13 +1,19 @@
 package guru.nicks.commons.cucumber.world;
 
+import guru.nicks.commons.cucumber.domain.DbTestEntity;
+import guru.nicks.commons.cucumber.domain.DbTestEntityRepository;
+import guru.nicks.commons.cucumber.domain.FtsDbTestEntityRepository;
 import guru.nicks.commons.cucumber.domain.TestEntity;
 
 import io.cucumber.spring.ScenarioScope;
+import jakarta.persistence.EntityManager;
 import lombok.Data;
 import org.hibernate.generator.EventType;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 @Component
 @ScenarioScope
@@ -21,4 +27,9 @@ public class JpaWorld {
 
     private String searchText;
 
+    private EntityManager entityManager;
+    private DbTestEntityRepository dbTestEntityRepository;
+    private FtsDbTestEntityRepository ftsDbTestEntityRepository;
+    private List<DbTestEntity> storedEntities = new ArrayList<>();
+
 }
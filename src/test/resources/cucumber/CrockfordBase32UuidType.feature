@@ -0,0 +1,71 @@
+@db #@disabled
+Feature: Crockford Base32 UUID type
+  IDs encoded with Crockford Base32 should be stored as native UUIDs
+
+  Scenario Outline: UUID read from DB is encoded with Crockford Base32
+    Given the DB returns UUID "<uuid>"
+    When the value is read with CrockfordBase32UuidType
+    Then the value read should be "<encoded>"
+    Examples:
+      | uuid                                 | encoded                    |
+      | 00000000-0000-0000-0000-000000000000 | 00000000000000000000000000 |
+      | ffffffff-ffff-ffff-ffff-ffffffffffff | 7ZZZZZZZZZZZZZZZZZZZZZZZZZ |
+      | 01890a5d-ac96-774b-bcce-b302099a8057 | 01H455VB4PEX5VSKNK084SN02Q |
+      | 123e4567-e89b-12d3-a456-426614174000 | 0J7S2PFT4V2B9T8NJ2CRA1EG00 |
+
+  Scenario Outline: Crockford Base32 value is written to DB as UUID
+    When the value "<encoded>" is written with CrockfordBase32UuidType
+    Then no exception should be thrown
+    And the UUID written should be "<uuid>"
+    Examples:
+      | encoded                    | uuid                                 | comments         |
+      | 01H455VB4PEX5VSKNK084SN02Q | 01890a5d-ac96-774b-bcce-b302099a8057 |                  |
+      | 7ZZZZZZZZZZZZZZZZZZZZZZZZZ | ffffffff-ffff-ffff-ffff-ffffffffffff | maximum value    |
+
+  Scenario Outline: Invalid Crockford Base32 value is rejected
+    When the value "<encoded>" is written with CrockfordBase32UuidType
+    Then an exception should be thrown
+    Examples:
+      | encoded                     | comments             |
+      | 01H455VB4PEX5VSKNK084SN02   | too short            |
+      | 01H455VB4PEX5VSKNK084SN02QQ | too long             |
+      | 01H455VB4PEX5VSKNK084SN02U  | U is not in alphabet |
+      | 8ZZZZZZZZZZZZZZZZZZZZZZZZZ  | exceeds 128 bits     |
+      | 01h455vb4pex5vsknk084sn02q  | lowercase            |
+      | 0J7S2PFT4V2B9T8NJ2CRA1EGOO  | O instead of 0       |
+
+  Scenario Outline: Crockford Base32 value is canonicalized
+    When the value "<value>" is canonicalized with CrockfordBase32UuidType
+    Then no exception should be thrown
+    And the canonical value should be "<canonical>"
+    Examples:
+      | value                      | canonical                  | comments          |
+      | 01H455VB4PEX5VSKNK084SN02Q | 01H455VB4PEX5VSKNK084SN02Q | already canonical |
+      | 01h455vb4pex5vsknk084sn02q | 01H455VB4PEX5VSKNK084SN02Q | lowercase         |
+      | 0J7S2PFT4V2B9T8NJ2CRA1EGOO | 0J7S2PFT4V2B9T8NJ2CRA1EG00 | O instead of 0    |
+      | 0j7s2pft4v2b9t8nj2cra1eg0o | 0J7S2PFT4V2B9T8NJ2CRA1EG00 | mixed             |
+      | 0J7S2PFT4V2B9T8NJ2CRAIEG00 | 0J7S2PFT4V2B9T8NJ2CRA1EG00 | I instead of 1    |
+
+  Scenario: Invalid Crockford Base32 value is not canonicalized
+    When the value "01H455VB4PEX5VSKNK084SN02U" is canonicalized with CrockfordBase32UuidType
+    Then an exception should be thrown
+
+  Scenario: Null is written as NULL
+    When a null value is written with CrockfordBase32UuidType
+    Then no exception should be thrown
+    And NULL should be written
+
+  Scenario: Null is read as null
+    Given the DB returns NULL
+    When the value is read with CrockfordBase32UuidType
+    Then the value read should be null
+
+  Scenario Outline: Values encoded by UuidUtils are stored as the UUIDs they were created from
+    Given a UUID version <version> encoded by UuidUtils
+    When the encoded UUID is written with CrockfordBase32UuidType
+    Then the UUID written should be the original one
+    And the UUID written should be read back as the same encoded value
+    Examples:
+      | version |
+      | 4       |
+      | 7       |
@@ -0,0 +1,52 @@
+@db #@disabled
+Feature: Enhanced JPA repository
+  Repository methods should work with a real Hibernate session
+
+  Background:
+    Given the test database is empty
+
+  Scenario Outline: Inserts are sent in JDBC batches inside the caller's transaction
+    When <count> new entities are inserted in batches of <batchSize>
+    Then <statements> SQL statements should have been prepared
+    And 0 entities should be stored in DB
+    When the changes are committed
+    Then <count> entities should be stored in DB
+    Examples:
+      | count | batchSize | statements |
+      | 10    | 5         | 2          |
+      | 11    | 5         | 3          |
+      | 3     | 10        | 1          |
+
+  Scenario: Inserts are rolled back together with the caller's transaction
+    When 3 new entities are inserted in batches of 2
+    And the changes are rolled back
+    Then 0 entities should be stored in DB
+
+  Scenario: Streamed entities are saved batch by batch without accumulating in the persistence context
+    When 5 new entities are streamed to bulk save in batches of 2
+    Then saved batches should have sizes "2, 2, 1"
+    And only the entities of the current batch should have been managed when each batch was saved
+    And no saved entities should be managed
+    When the changes are committed
+    Then 5 entities should be stored in DB
+
+  Scenario: IDs are looked up in IN lists padded to the next power of two
+    Given 5 entities named "stored" are stored in DB
+    When entities are found by IDs "3, 1, 99" preserving their order
+    Then found entities should have IDs "3, 1"
+    And IN lists of sizes "4" should have been queried
+
+  Scenario: IDs are looked up in chunks submitted to the executor
+    Given 1100 entities named "stored" are stored in DB
+    When entities are found by IDs 1100 down to 1 preserving their order, on an executor
+    Then found entities should have IDs 1100 down to 1
+    And 2 tasks should have been submitted to the executor
+    And IN lists of sizes "1024, 128" should have been queried
+
+  Scenario: Entities are found by an array of IDs in a single HQL query
+    Given ID array lookup is enabled
+    And 5 entities named "stored" are stored in DB
+    When entities are found by IDs "3, 1, 99, 5" preserving their order
+    Then found entities should have IDs "3, 1, 5"
+    And IDs should have been bound as a single array
+    And 1 SQL statements should have been prepared
@@ -0,0 +1,141 @@
+@db #@disabled
+Feature: Enhanced JPA search repository
+  Search methods should work with a real Hibernate session
+
+  Background:
+    Given the test database is empty
+
+  Scenario: Repository proxy is looked up once and then reused
+    Given 3 entities named "searched" are stored in DB
+    When entities named "searched" are searched for 3 times
+    Then 3 entities should have been found each time
+    And the repository bean should have been looked up 1 times
+
+  Scenario: Streaming detaches streamed entities but keeps the caller's pending changes
+    Given 5 entities named "streamed" are stored in DB
+    And 1 entities named "other" are stored in DB
+    And stored entity 6 is loaded by the caller
+    When entities named "streamed" are streamed 2 at a time, renaming the caller's entity to "changed" meanwhile
+    Then 5 entities should have been streamed
+    And the first 4 streamed entities should be detached
+    And the caller's entity should be managed
+    When the changes are committed
+    Then stored entity 6 should be named "changed" in DB
+
+  Scenario: Streaming leaves entities which had already been managed as they are
+    Given 5 entities named "streamed" are stored in DB
+    And stored entity 1 is loaded by the caller
+    When entities named "streamed" are streamed 2 at a time
+    Then 5 entities should have been streamed
+    And the caller's entity should be managed
+    When the caller's entity is renamed to "changed"
+    And the changes are committed
+    Then stored entity 1 should be named "changed" in DB
+
+  Scenario: Keyset pagination walks through entities with equal created dates and skips those without one
+    Given 6 entities named "scrolled" are stored in DB
+    And the stored entities have created dates:
+      | id | createdDate          |
+      | 1  | 2026-01-01T00:00:00Z |
+      | 2  | 2026-01-02T00:00:00Z |
+      | 3  | 2026-01-02T00:00:00Z |
+      | 4  | 2026-01-02T00:00:00Z |
+      | 5  | 2026-01-03T00:00:00Z |
+      | 6  |                      |
+    When entities named "scrolled" are scrolled 2 at a time
+    Then the scrolled entity IDs should be "5, 4, 3, 2, 1"
+
+  Scenario Outline: Slices are fetched without a COUNT query
+    Given 5 entities named "sliced" are stored in DB
+    When slice <slice> of entities named "sliced" is requested, 2 entities per slice
+    Then the slice should contain entities with IDs "<ids>"
+    And the slice should have a next one: <hasNext>
+    And no COUNT query should have been run
+    Examples:
+      | slice | ids  | hasNext |
+      | 0     | 1, 2 | true    |
+      | 1     | 3, 4 | true    |
+      | 2     | 5    | false   |
+
+  Scenario: Projections are selected without loading entities
+    Given 5 entities named "projected" are stored in DB
+    And 1 entities named "other" are stored in DB
+    When IDs of entities named "projected" are selected, page 1 of 2 IDs sorted descending
+    Then the selected IDs should be "3, 2" out of 5
+    And no entities should be managed
+
+  Scenario: Unpaged full-text search is sorted by search rank
+    Given the full-text search rebuild service runs tasks immediately
+    And full-text searchable entities having the following names are stored in DB and indexed:
+      | alpha            |
+      | alpha beta gamma |
+      | delta            |
+      | alpha beta       |
+    When an unpaged slice of full-text searchable entities is requested for "alpha beta gamma"
+    Then the slice should contain full-text searchable entities named:
+      | alpha beta gamma |
+      | alpha beta       |
+      | alpha            |
+    And the slice should have a next one: false
+    And the slice should be unpaged and sorted by "_searchRank"
+
+  Scenario: Unpaged full-text search keeps the requested sort order
+    Given the full-text search rebuild service runs tasks immediately
+    And full-text searchable entities having the following names are stored in DB and indexed:
+      | alpha beta gamma |
+      | delta            |
+      | alpha            |
+      | alpha beta       |
+    When an unpaged slice of full-text searchable entities is requested for "alpha beta gamma", sorted by name
+    Then the slice should contain full-text searchable entities named:
+      | alpha            |
+      | alpha beta       |
+      | alpha beta gamma |
+    And the slice should be unpaged and sorted by "name"
+
+  Scenario: JSON search value is bound as a query parameter after other parameters
+    Given 2 entities named '["red", "green"]' are stored in DB
+    And 2 entities named '["blue"]' are stored in DB
+    When entities with ID greater than 1 and "green" in their JSON names are searched for
+    Then the entities found by JSON should have IDs "2"
+
+  Scenario: Two-phase ranked search selects IDs first, then fetches entities by them in the same order
+    Given two-phase ranked search is enabled
+    And the full-text search rebuild service runs tasks immediately
+    And full-text searchable entities having the following names are stored in DB and indexed:
+      | alpha            |
+      | alpha beta gamma |
+      | delta            |
+      | alpha beta       |
+      | beta             |
+    When page 0 of full-text searchable entities is searched for "alpha beta gamma", 2 entities per page
+    Then the full-text searchable entities found should be named:
+      | alpha beta gamma |
+      | alpha beta       |
+    And only IDs should have been searched for, then entities should have been fetched by them
+
+  Scenario: Full-text search conditions are cached regardless of case and whitespace
+    Given the full-text search rebuild service runs tasks immediately
+    And full-text searchable entities having the following names are stored in DB and indexed:
+      | cached condition |
+      | delta            |
+    When full-text searchable entities are searched for each of:
+      | Cached Condition   |
+      | cached   CONDITION |
+      | CACHED condition   |
+    Then 1 entities should have been found each time
+    And the full-text search condition cache should have had 1 miss and 2 hits
+
+  Scenario: Full-text search text is bound as query parameters after the filter parameter
+    Given the full-text search rebuild service runs tasks immediately
+    And full-text searchable entities having the following names are stored in DB and indexed:
+      | alpha beta gamma |
+      | gamma            |
+      | alpha epsilon    |
+      | beta gamma       |
+      | delta            |
+    When full-text searchable entities having "gamma" in their names are searched for "alpha beta gamma"
+    Then the full-text searchable entities found should be named:
+      | alpha beta gamma |
+      | beta gamma       |
+      | gamma            |
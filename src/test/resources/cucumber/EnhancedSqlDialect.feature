@@ -0,0 +1,17 @@
+@db #@disabled
+Feature: EnhancedSqlDialect functionality
+  EnhancedSqlDialect should create DB-specific full-text search queries
+
+  Scenario Outline: Creating prefix full-text search query
+    Given the "<dialect>" SQL dialect
+    When a prefix full-text search query is created for words "<words>"
+    Then the full-text search query should be "<expectedQuery>"
+    Examples:
+      | dialect  | words               | expectedQuery                     |
+      | POSTGRES |                     |                                   |
+      | POSTGRES | quick               | quick:*                           |
+      | POSTGRES | quick,brown,fox     | quick:* \| brown:* \| fox:*       |
+      | POSTGRES | quick,quick         | quick:*                           |
+      | POSTGRES | a&b,c\|d,e:*,(f),!g | ab:* \| cd:* \| e:* \| f:* \| g:* |
+      | POSTGRES | it's,;--            | its:*                             |
+      | POSTGRES | äöü,123             | äöü:* \| 123:*                    |
@@ -0,0 +1,11 @@
+@db #@disabled
+Feature: HQL functions for search templates
+  HQL functions should call DB functions with arguments of the types they expect
+
+  Scenario Outline: JSON value is cast to jsonb for Postgres only
+    Given HQL functions are contributed for the "<dialect>" Hibernate dialect
+    Then HQL function "json_contains" should call "<pattern>"
+    Examples:
+      | dialect  | pattern                              |
+      | postgres | JSON_CONTAINS(?1, CAST(?2 AS jsonb)) |
+      | h2       | JSON_CONTAINS(?1, ?2)                |
@@ -82,6 +82,31 @@ Feature: FullTextSearchAwareEntity functionality
       | content one | content two | content three | field2       | new content two   |
       | content one | content two | content three | field3       | new content three |
 
+  Scenario: Legacy checksum is upgraded without regeneration when search data hasn't changed
+    Given a test entity with search data "initial search content"
+    And the entity has a legacy search data checksum
+    When full-text search data is collected
+    Then the full-text search data should not be regenerated
+    And the search data checksum should be upgraded
+
+  Scenario: Legacy checksum triggers regeneration when search data changes
+    Given a test entity with search data "initial search content"
+    And the entity has a legacy search data checksum
+    When the entity search data is changed to "updated search content"
+    And full-text search data is collected
+    Then the full-text search data should be regenerated
+    And the search data checksum should be updated
+
+  Scenario: Deferred rebuild marks search data stale instead of computing ngrams
+    Given a test entity with search data "initial search content"
+    When full-text search data is collected
+    Then the search data checksum should be calculated and stored
+    When the entity search data is changed to "updated search content"
+    And ngram rebuild is deferred for the entity
+    And full-text search data is collected
+    Then the full-text search data should not be regenerated
+    And the full-text search data should be marked stale
+
   Scenario: Checksum performance for large text content
     Given a test entity with large search data of size 10000 characters
     When full-text search data is collected
@@ -90,6 +115,33 @@ Feature: FullTextSearchAwareEntity functionality
     Then the full-text search data generation should be skipped
     And the operation should complete in less than 100 milliseconds
 
+  Scenario Outline: Building full-text search data within a length limit
+    Given a test entity with search data "<searchData>"
+    When full-text search data is built with length limit <maxLength>
+    Then the built search data should equal the chunks joined within the length limit
+    Examples:
+      | searchData                                        | maxLength |
+      | null                                              | 100       |
+      | simple search text                                | 0         |
+      | simple search text                                | 3         |
+      | simple search text                                | 10        |
+      | simple search text                                | 10000     |
+      | word word word word ox ox                         | 10000     |
+      | supercalifragilisticexpialidocious ab cd ef gh ij | 50        |
+
+  Scenario Outline: Building full-text search data consisting of words only
+    Given a test entity with search data "<searchData>"
+    When full-text search data is built with strategy "<strategy>" and length limit <maxLength>
+    Then the built search data should be "<expectedData>"
+    Examples:
+      | strategy      | searchData          | maxLength | expectedData    |
+      | NATIVE_PREFIX | null                | 100       |                 |
+      | NATIVE_PREFIX | THE QUICK BROWN FOX | 100       | quick brown fox |
+      | NATIVE_PREFIX | word word word word | 100       | word            |
+      | NATIVE_PREFIX | quick brown fox     | 11        | quick brown     |
+      | TRIGRAM       | THE QUICK BROWN FOX | 100       | quick brown fox |
+      | TRIGRAM       | quick brown fox     | 10        | quick           |
+
   Scenario Outline: Testing createFullTextSearchChunks with edge cases
     Given a test entity with search data "<searchData>"
     When full-text search chunks are created
@@ -0,0 +1,34 @@
+@db #@disabled
+Feature: Deferred full-text search rebuild
+  Search data of entities which deferred its rebuild should be rebuilt in background
+
+  Background:
+    Given the test database is empty
+    And the full-text search rebuild service runs tasks immediately
+
+  Scenario: Stale search data is rebuilt
+    Given 1 full-text searchable entities named "alpha beta" are stored in DB
+    And full-text searchable entity 1 should have stale search data
+    When rebuild of full-text searchable entity 1 is requested
+    Then full-text searchable entity 1 should have search data containing "alpha"
+    And full-text searchable entity 1 should not have stale search data
+
+  Scenario: Search data is lazy
+    Given 1 full-text searchable entities named "alpha beta" are stored in DB
+    When rebuild of full-text searchable entity 1 is requested
+    Then full-text searchable entity 1 should be loaded without search data until it's accessed
+    And JPA inference should find no entities loading search data eagerly
+
+  Scenario: Entity modified concurrently is skipped
+    Given 1 full-text searchable entities named "alpha" are stored in DB
+    And full-text searchable entity 1 will be modified concurrently while its search text is collected
+    When rebuild of full-text searchable entity 1 is requested
+    Then full-text searchable entity 1 should have checksum "stale:concurrent"
+    And full-text searchable entity 1 should have no search data
+
+  Scenario: All entities having stale search data are queued
+    Given 3 full-text searchable entities named "alpha" are stored in DB
+    And rebuild of full-text searchable entity 2 is requested
+    When rebuild of all stale full-text searchable entities is requested
+    Then 2 entities should have been queued for rebuild
+    And full-text searchable entities 1 to 3 should not have stale search data
@@ -0,0 +1,17 @@
+@db #@disabled
+Feature: Full-text search reindex
+  Search data of all entities should be rebuilt on demand, without the deferred rebuild service
+
+  Background:
+    Given the test database is empty
+    And the full-text search reindex service
+
+  Scenario: Reindex resumes after the given ID and reads source properties only
+    Given 5 full-text searchable entities named "alpha beta" are stored in DB
+    When full-text search data is reindexed after entity 3
+    Then reindex should have processed 2 entities and updated 2 of them
+    And reindex should have stopped at entity 5
+    And reindex should not have loaded any entities
+    And full-text searchable entities 1 to 3 should have stale search data
+    And full-text searchable entities 4 to 5 should not have stale search data
+    And full-text searchable entity 5 should have search data containing "beta"
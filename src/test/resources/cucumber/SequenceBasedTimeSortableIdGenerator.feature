@@ -0,0 +1,81 @@
+@db #@disabled
+Feature: Sequence-based time-sortable ID generator
+
+  Scenario Outline: Sequence values are fetched in blocks of allocation size
+    Given a SequenceBasedTimeSortableIdGenerator with allocation size <allocationSize>
+    When <idCount> IDs are generated for new entities
+    Then no exception should be thrown
+    And all generated IDs should be unique
+    And the sequence should have been queried <queryCount> times
+    Examples:
+      | allocationSize | idCount | queryCount | comments                    |
+      | 1              | 3       | 3          | no pooling                  |
+      | 10             | 10      | 1          | exactly one block           |
+      | 10             | 25      | 3          | last block partially used   |
+      | 50             | 1       | 1          | block fetched on first call |
+
+  Scenario: Pooled sequence values are handed out without duplicates to concurrent threads
+    Given a SequenceBasedTimeSortableIdGenerator with allocation size 50
+    When 1000 IDs are generated for new entities by 8 threads
+    Then no exception should be thrown
+    And all generated IDs should be unique
+    And the sequence should have been queried 20 times
+
+  Scenario: Skip generation when entity already has an ID
+    Given a SequenceBasedTimeSortableIdGenerator with allocation size 10
+    And an entity with ID "test-id"
+    When the SequenceBasedTimeSortableIdGenerator is called with the existing entity
+    Then the entity ID should remain "test-id"
+    And the sequence should have been queried 0 times
+
+  Scenario Outline: Allocation size must be positive
+    When a SequenceBasedTimeSortableIdGenerator with allocation size <allocationSize> is created
+    Then an exception should be thrown
+    Examples:
+      | allocationSize |
+      | 0              |
+      | -1             |
+
+  Scenario Outline: Sequence increment is checked against allocation size
+    Given the sequence is declared in DB with increment "<increment>"
+    And a SequenceBasedTimeSortableIdGenerator with allocation size 10 for Postgres
+    When 25 IDs are generated for new entities
+    Then no exception should be thrown
+    And all generated IDs should be unique
+    And the sequence increment should have been checked for sequence "test_seq" in the current schema
+    And the sequence should have been queried 3 times
+    Examples:
+      | increment | comments                                |
+      | 10        | matches allocation size                 |
+      |           | sequence not visible, warning is logged |
+
+  Scenario Outline: Sequence increment differing from allocation size is rejected
+    Given the sequence is declared in DB with increment "<increment>"
+    And a SequenceBasedTimeSortableIdGenerator with allocation size 10 for Postgres
+    When 1 IDs are generated for new entities
+    Then an exception should be thrown
+    And the sequence should have been queried 0 times
+    Examples:
+      | increment | comments                          |
+      | 1         | blocks would overlap (duplicates) |
+      | 50        | values would be skipped           |
+
+  Scenario Outline: Several sequence values are fetched in a single round trip
+    Given a SequenceBasedTimeSortableIdGenerator with fetch size <fetchSize> for Postgres
+    When <idCount> IDs are generated for new entities
+    Then no exception should be thrown
+    And all generated IDs should be unique
+    And the sequence should have been queried <queryCount> times
+    Examples:
+      | fetchSize | idCount | queryCount |
+      | 1         | 3       | 3          |
+      | 10        | 10      | 1          |
+      | 10        | 25      | 3          |
+
+  Scenario: Fetch size can't be combined with allocation size
+    When a SequenceBasedTimeSortableIdGenerator with allocation size 10 and fetch size 10 is created
+    Then an exception should be thrown
+
+  Scenario: Fetch size requires dialect support
+    When a SequenceBasedTimeSortableIdGenerator with fetch size 10 is created for a non-Postgres dialect
+    Then an exception should be thrown
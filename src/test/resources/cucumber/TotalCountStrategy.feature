@@ -0,0 +1,39 @@
+@db #@disabled
+Feature: Total count strategies
+  Total count strategies should decide when to run an exact COUNT query
+
+  Scenario: Exact strategy counts every time
+    Given the exact total count is 42
+    And the "exact" total count strategy
+    When the total count is requested 3 times for filter "a" and full-text search "text"
+    Then the total count should be 42
+    And the exact count should have been run 3 times
+
+  Scenario: Cached strategy counts once per search
+    Given the exact total count is 42
+    And the "cached" total count strategy
+    When the total count is requested 3 times for filter "a" and full-text search "text"
+    Then the total count should be 42
+    And the exact count should have been run 1 times
+
+  Scenario: Cached strategy counts again for a different search
+    Given the exact total count is 42
+    And the "cached" total count strategy
+    When the total count is requested 2 times for filter "a" and full-text search "text"
+    And the total count is requested 2 times for filter "b" and full-text search "text"
+    And the total count is requested 2 times for filter "b" and full-text search "other text"
+    Then the exact count should have been run 3 times
+
+  Scenario Outline: Estimated strategy trusts estimates above threshold only
+    Given the exact total count is 42
+    And the row count estimate is "<estimate>"
+    And the "estimated" total count strategy with threshold <threshold>
+    When the total count is requested 1 times for filter "a" and full-text search ""
+    Then the total count should be <total>
+    And the exact count should have been run <exactCountRuns> times
+    Examples:
+      | estimate | threshold | total  | exactCountRuns |
+      | 100000   | 10000     | 100000 | 0              |
+      | 10000    | 10000     | 10000  | 0              |
+      | 9999     | 10000     | 42     | 1              |
+      |          | 10000     | 42     | 1              |
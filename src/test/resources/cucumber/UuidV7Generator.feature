@@ -34,3 +34,19 @@ Feature: UUID v7 Generator
     Given the entity ID getter throws an exception
     When the generator is called to generate an ID for the entity
     Then the exception message should contain "Failed to call entity ID getter method"
+
+  Scenario Outline: Generated UUIDs are ascending within a thread
+    Given the UuidV7Generator counter is per-thread: <perThread>
+    When 10000 UUIDs are generated for new entities
+    Then the generated UUIDs should be valid UUID v7
+    And the generated UUIDs should be strictly ascending
+    Examples:
+      | perThread |
+      | false     |
+      | true      |
+
+  Scenario: Per-thread UUIDs generated concurrently are unique
+    Given the UuidV7Generator counter is per-thread: true
+    When 10000 UUIDs are generated for new entities by 8 threads
+    Then the generated UUIDs should be valid UUID v7
+    And the generated UUIDs should be unique